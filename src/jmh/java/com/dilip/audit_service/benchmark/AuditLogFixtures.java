@@ -0,0 +1,84 @@
+package com.dilip.audit_service.benchmark;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic, deterministic audit events shaped like audit-event-samples.json, for the benchmarks.
+ */
+public final class AuditLogFixtures {
+
+    private static final String[] SOURCE_SERVICES = {"UserService", "OrderService", "BillingService", "AuthService"};
+    private static final String[] EVENT_TYPES = {"UserCreated", "UserUpdated", "OrderPlaced", "InvoicePaid", "LoginFailed"};
+    private static final String[] ENTITY_TYPES = {"User", "Order", "Invoice", "Session"};
+    private static final Instant START = Instant.parse("2025-05-01T00:00:00Z");
+
+    private AuditLogFixtures() {
+    }
+
+    /**
+     * Configured like the application's mapper (ISO-8601 instants).
+     */
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * {@code count} events spread over 30 days and 1000 users.
+     */
+    public static List<AuditLog> events(int count) {
+        Random random = new Random(42);
+        List<AuditLog> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(event(i, random));
+        }
+        return events;
+    }
+
+    private static AuditLog event(int i, Random random) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId("evt-" + i);
+        auditLog.setTimestamp(START.plus(random.nextInt(30 * 24 * 60), ChronoUnit.MINUTES));
+        auditLog.setSourceService(SOURCE_SERVICES[random.nextInt(SOURCE_SERVICES.length)]);
+        auditLog.setEventType(EVENT_TYPES[random.nextInt(EVENT_TYPES.length)]);
+        auditLog.setEntityType(ENTITY_TYPES[random.nextInt(ENTITY_TYPES.length)]);
+        auditLog.setEntityId(Integer.toString(random.nextInt(100_000)));
+
+        AuditLog.ChangedBy changedBy = new AuditLog.ChangedBy();
+        int user = random.nextInt(1000);
+        changedBy.setUserId("user-" + user);
+        changedBy.setUsername("user-" + user);
+        changedBy.setRoles(user == 0 ? List.of("ADMIN") : List.of("USER"));
+        auditLog.setChangedBy(changedBy);
+
+        Map<String, AuditLog.ChangeDetail> changeSummary = new LinkedHashMap<>();
+        changeSummary.put("name", change("John Doe", "John Smith"));
+        changeSummary.put("email", change("john.doe@example.com", "john.smith@example.com"));
+        auditLog.setChangeSummary(changeSummary);
+
+        AuditLog.Metadata metadata = new AuditLog.Metadata();
+        metadata.setIpAddress("192.168.1." + random.nextInt(255));
+        metadata.setUserAgent("Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko)");
+        auditLog.setMetadata(metadata);
+        return auditLog;
+    }
+
+    private static AuditLog.ChangeDetail change(String oldValue, String newValue) {
+        AuditLog.ChangeDetail detail = new AuditLog.ChangeDetail();
+        detail.setOldValue(oldValue);
+        detail.setNewValue(newValue);
+        return detail;
+    }
+}
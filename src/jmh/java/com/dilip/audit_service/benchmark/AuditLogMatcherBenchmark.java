@@ -0,0 +1,72 @@
+package com.dilip.audit_service.benchmark;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.repository.AuditLogMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * In-memory filtering of the cold storage scan: {@link AuditLogMatcher} applied to every event of a large
+ * synthetic dataset, with a selective and a broad request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditLogMatcherBenchmark {
+
+    @Param({"100000"})
+    private int events;
+
+    private List<AuditLog> auditLogs;
+    private AuditSearchRequest selective;
+    private AuditSearchRequest broad;
+
+    @Setup
+    public void setUp() {
+        auditLogs = AuditLogFixtures.events(events);
+
+        selective = new AuditSearchRequest();
+        selective.setEventType("OrderPlaced");
+        selective.setSourceService("OrderService");
+        selective.setChangedByUserId("user-7");
+        selective.setStartTime("2025-05-10T00:00:00Z");
+        selective.setEndTime("2025-05-12T00:00:00Z");
+
+        broad = new AuditSearchRequest();
+        broad.setStartTime("2025-05-01T00:00:00Z");
+        broad.setEndTime("2025-05-31T00:00:00Z");
+    }
+
+    @Benchmark
+    public List<AuditLog> filterSelective() {
+        return filter(selective);
+    }
+
+    @Benchmark
+    public List<AuditLog> filterBroad() {
+        return filter(broad);
+    }
+
+    // the predicate is built per query, as the scan does
+    private List<AuditLog> filter(AuditSearchRequest request) {
+        Predicate<AuditLog> matcher = AuditLogMatcher.of(request);
+        return auditLogs.stream().filter(matcher).toList();
+    }
+}
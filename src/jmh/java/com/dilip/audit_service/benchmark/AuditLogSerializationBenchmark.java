@@ -0,0 +1,82 @@
+package com.dilip.audit_service.benchmark;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round trip of one audit event, as done on every ingest (Kafka/REST), S3 read and ES hit mapping.
+ * Compares parsing from a String (the former Kafka StringDeserializer path) with parsing from the raw bytes, and
+ * an ad-hoc {@code readValue} with a prebuilt {@link ObjectReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuditLogSerializationBenchmark {
+
+    private ObjectMapper mapper;
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private AuditLog auditLog;
+    private String json;
+    private byte[] jsonBytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = AuditLogFixtures.objectMapper();
+        reader = mapper.readerFor(AuditLog.class);
+        writer = mapper.writerFor(AuditLog.class);
+        auditLog = AuditLogFixtures.events(1).get(0);
+        json = mapper.writeValueAsString(auditLog);
+        jsonBytes = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public AuditLog parseFromString() throws IOException {
+        return mapper.readValue(json, AuditLog.class);
+    }
+
+    @Benchmark
+    public AuditLog parseFromBytes() throws IOException {
+        return mapper.readValue(jsonBytes, AuditLog.class);
+    }
+
+    @Benchmark
+    public AuditLog parseFromBytesWithReader() throws IOException {
+        return reader.readValue(jsonBytes);
+    }
+
+    // what a String based consumer pays: decode the record value first, then parse
+    @Benchmark
+    public AuditLog decodeThenParse() throws IOException {
+        return mapper.readValue(new String(jsonBytes, StandardCharsets.UTF_8), AuditLog.class);
+    }
+
+    @Benchmark
+    public String writeAsString() throws IOException {
+        return writer.writeValueAsString(auditLog);
+    }
+
+    @Benchmark
+    public byte[] writeAsBytes() throws IOException {
+        return writer.writeValueAsBytes(auditLog);
+    }
+}
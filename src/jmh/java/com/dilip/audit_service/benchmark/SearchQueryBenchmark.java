@@ -0,0 +1,59 @@
+package com.dilip.audit_service.benchmark;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.data.repository.AuditQueryCompiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AuditSearchRequest} to Elasticsearch query compilation done for every search, for an admin and a
+ * regular user (which adds the user scoping). No Elasticsearch connection is involved.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchQueryBenchmark {
+
+    @Param({"ROLE_ADMIN", "ROLE_USER"})
+    private String role;
+
+    private UserContext user;
+    private AuditSearchRequest request;
+
+    @Setup
+    public void setUp() {
+        user = new UserContext("user-7", "user-7", List.of(role));
+
+        request = new AuditSearchRequest();
+        request.setEventType("OrderPlaced");
+        request.setEntityType("Order");
+        request.setEntityId("4711");
+        request.setSourceService("OrderService");
+        request.setChangedByUserId("user-7");
+        request.setRoles(List.of("ROLE_USER"));
+        request.setStartTime("2025-05-10T00:00:00Z");
+        request.setEndTime("2025-05-12T00:00:00Z");
+    }
+
+    @Benchmark
+    public Query compile() {
+        return AuditQueryCompiler.compile(request, user);
+    }
+}
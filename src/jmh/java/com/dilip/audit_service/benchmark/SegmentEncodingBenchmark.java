@@ -0,0 +1,106 @@
+package com.dilip.audit_service.benchmark;
+
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.codec.EventFormat;
+import com.dilip.audit_service.config.EventCodecConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding of a cold storage payload of {@code events} events through {@link AuditEventCodec} in
+ * each {@link EventFormat}, gzip compressed as the segments written by {@code AuditSegmentWriter} versus
+ * uncompressed. Decoding mirrors {@code S3ScanEngine.readObject}. Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SegmentEncodingBenchmark {
+
+    @Param({"100", "10000"})
+    private int events;
+
+    @Param({"JSON", "SMILE"})
+    private EventFormat format;
+
+    private AuditEventCodec codec;
+    private List<AuditLog> auditLogs;
+    private byte[] raw;
+    private byte[] gzipped;
+
+    @Setup
+    public void setUp() throws IOException {
+        EventCodecConfig config = new EventCodecConfig();
+        config.setFormat(format);
+        codec = new AuditEventCodec(AuditLogFixtures.objectMapper(), config);
+        auditLogs = AuditLogFixtures.events(events);
+        raw = encode(false);
+        gzipped = encode(true);
+        System.out.printf("%n%d events as %s: %d bytes raw, %d bytes gzip%n",
+                events, format, raw.length, gzipped.length);
+    }
+
+    @Benchmark
+    public byte[] encodeRaw() throws IOException {
+        return encode(false);
+    }
+
+    @Benchmark
+    public byte[] encodeGzip() throws IOException {
+        return encode(true);
+    }
+
+    @Benchmark
+    public void decodeRaw(Blackhole blackhole) throws IOException {
+        decode(new ByteArrayInputStream(raw), blackhole);
+    }
+
+    @Benchmark
+    public void decodeGzip(Blackhole blackhole) throws IOException {
+        decode(new GZIPInputStream(new ByteArrayInputStream(gzipped)), blackhole);
+    }
+
+    private byte[] encode(boolean gzip) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        OutputStream out = gzip ? new GZIPOutputStream(buffer) : buffer;
+        try (SequenceWriter writer = codec.encoder(out)) {
+            for (AuditLog auditLog : auditLogs) {
+                writer.write(auditLog);
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    private void decode(InputStream in, Blackhole blackhole) throws IOException {
+        try (in; MappingIterator<AuditLog> values = codec.decoder(in)) {
+            while (values.hasNextValue()) {
+                blackhole.consume(values.nextValue());
+            }
+        }
+    }
+}
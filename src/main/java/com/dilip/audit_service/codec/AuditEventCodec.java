@@ -0,0 +1,77 @@
+package com.dilip.audit_service.codec;
+
+import com.dilip.audit_service.config.EventCodecConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Encodes audit events in the configured {@link EventFormat} and decodes either format, detected from the
+ * content (Smile data starts with the {@code :)\n} header), so legacy JSON objects and records stay readable.
+ * Both formats share the application's {@link ObjectMapper} configuration.
+ */
+@Component
+public class AuditEventCodec {
+
+    private final EventFormat format;
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter smileWriter;
+    private final ObjectReader reader;
+
+    public AuditEventCodec(ObjectMapper objectMapper, EventCodecConfig config) {
+        this.format = config.getFormat();
+        SmileFactory smileFactory = SmileFactory.builder()
+                // eventType, sourceService, entityType... repeat in every event of a segment
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        ObjectMapper smileMapper = objectMapper.copyWith(smileFactory);
+
+        this.jsonWriter = objectMapper.writerFor(AuditLog.class);
+        this.smileWriter = smileMapper.writerFor(AuditLog.class);
+        ObjectReader jsonReader = objectMapper.readerFor(AuditLog.class);
+        this.reader = jsonReader.withFormatDetection(jsonReader, smileMapper.readerFor(AuditLog.class));
+    }
+
+    public EventFormat format() {
+        return format;
+    }
+
+    public byte[] encode(AuditLog auditLog) throws IOException {
+        return writer().writeValueAsBytes(auditLog);
+    }
+
+    public AuditLog decode(byte[] content) throws IOException {
+        return reader.readValue(content);
+    }
+
+    /**
+     * Writes a stream of events to {@code out}: newline separated for JSON, a single Smile document stream (one
+     * header, names shared across all events) for Smile. Closing the writer closes {@code out}.
+     */
+    public SequenceWriter encoder(OutputStream out) throws IOException {
+        return format == EventFormat.JSON
+                ? jsonWriter.withRootValueSeparator("\n").writeValues(out)
+                : smileWriter.writeValues(out);
+    }
+
+    /**
+     * Reads a stream of events in either format, as written by {@link #encoder(OutputStream)}.
+     */
+    public MappingIterator<AuditLog> decoder(InputStream in) throws IOException {
+        return reader.readValues(in);
+    }
+
+    private ObjectWriter writer() {
+        return format == EventFormat.JSON ? jsonWriter : smileWriter;
+    }
+}
@@ -0,0 +1,29 @@
+package com.dilip.audit_service.codec;
+
+/**
+ * Encodings of stored and internally transported audit events.
+ * <p>
+ * {@code SMILE} is Jackson's binary JSON: same data model, but field names and repeated short values are written
+ * once per stream and back-referenced afterwards, numbers are binary and nothing needs escaping.
+ */
+public enum EventFormat {
+
+    JSON(".ndjson", "application/x-ndjson"),
+    SMILE(".smile", "application/x-jackson-smile");
+
+    private final String extension;
+    private final String contentType;
+
+    EventFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
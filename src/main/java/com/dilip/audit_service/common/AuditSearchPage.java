@@ -0,0 +1,12 @@
+package com.dilip.audit_service.common;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+
+import java.util.List;
+
+/**
+ * One page of a cursor paginated search. {@code nextCursor} is an opaque token to pass back as the request's
+ * {@code cursor} to fetch the following page, it is null once the last page has been returned.
+ */
+public record AuditSearchPage(List<AuditLog> items, String nextCursor) {
+}
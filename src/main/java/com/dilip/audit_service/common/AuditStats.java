@@ -0,0 +1,20 @@
+package com.dilip.audit_service.common;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated view of the events matching a search: the total, counts per eventType, sourceService and entityType
+ * (largest first), a histogram over the event timestamp and the users with the most events.
+ */
+public record AuditStats(long total,
+                         Map<String, Long> byEventType,
+                         Map<String, Long> bySourceService,
+                         Map<String, Long> byEntityType,
+                         List<TimeBucket> histogram,
+                         Map<String, Long> topUsers) {
+
+    public record TimeBucket(Instant start, long count) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.dilip.audit_service.common;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+
+import java.util.List;
+
+/**
+ * Result of a lookup of many events by id: the events found, in request order, and the ids that do not
+ * exist or are not visible to the caller.
+ */
+public record BatchLookupResult(List<AuditLog> found, List<String> missing) {
+}
@@ -0,0 +1,18 @@
+package com.dilip.audit_service.common;
+
+import java.util.List;
+
+/**
+ * Response of a bulk ingest, in the spirit of the Elasticsearch {@code _bulk} API: one item per input line, in
+ * input order, and {@code errors} set as soon as any item was not stored.
+ */
+public record BulkIngestResult(long took, boolean errors, List<Item> items) {
+
+    /**
+     * {@code status} is 201 when the event is stored, 400 when the line could not be read as an event, 429 when
+     * it was rejected because the storages are saturated and 503 when it could not be stored; {@code error} is
+     * null for stored events.
+     */
+    public record Item(int line, String eventId, int status, String error) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.dilip.audit_service.common;
+
+import java.util.Map;
+
+/**
+ * Outcome of a multi-event write. {@code failures} maps the eventId of every event that could not be
+ * written to the reason reported by the backing store; an empty map means the whole batch is durable.
+ */
+public record BulkWriteResult(int attempted, Map<String, String> failures) {
+
+    public static BulkWriteResult success(int attempted) {
+        return new BulkWriteResult(attempted, Map.of());
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    public int succeeded() {
+        return attempted - failures.size();
+    }
+}
@@ -0,0 +1,11 @@
+package com.dilip.audit_service.common;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Events stored in one tier only and still waiting for the reconciler, {@code byTier} counts them per missing
+ * tier and {@code oldestSince} is when the oldest of them was journaled (null when there are none).
+ */
+public record DivergenceReport(long outstanding, Map<String, Long> byTier, Instant oldestSince) {
+}
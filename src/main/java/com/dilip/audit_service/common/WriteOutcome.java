@@ -0,0 +1,16 @@
+package com.dilip.audit_service.common;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of writing one event to every storage tier. {@code failedTiers} maps the name of each tier the
+ * event did not reach to the reason; an empty map means the event is durable. {@code deferredTiers} are tiers
+ * the event is still missing from but that are journaled and will be written by the reconciler.
+ */
+public record WriteOutcome(String eventId, Map<String, String> failedTiers, Set<String> deferredTiers) {
+
+    public boolean isDurable() {
+        return failedTiers.isEmpty();
+    }
+}
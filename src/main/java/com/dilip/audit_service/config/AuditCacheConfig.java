@@ -0,0 +1,20 @@
+package com.dilip.audit_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.cache")
+public class AuditCacheConfig {
+
+    private boolean enabled = true;
+    private long maxSize = 10000;
+    // audit events are immutable, the ttl only bounds how long a deleted event can linger on other nodes
+    private Duration ttl = Duration.ofMinutes(10);
+}
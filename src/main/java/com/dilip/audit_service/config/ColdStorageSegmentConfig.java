@@ -0,0 +1,25 @@
+package com.dilip.audit_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "db.cold-storage.segment")
+public class ColdStorageSegmentConfig {
+
+    // local directory where events are spooled until their segment is rolled up and uploaded; spooled events
+    // are acknowledged, so it must be on a persistent volume
+    private String spoolDirectory = "/var/lib/audit-service/spool";
+    // a segment is sealed as soon as one of the size, count or age thresholds is reached
+    private long maxSegmentBytes = 8 * 1024 * 1024;
+    private int maxSegmentEvents = 10000;
+    private Duration maxSegmentAge = Duration.ofMinutes(5);
+    // eventId -> segment key of the most recently uploaded or looked up events, spares lookups the manifest scan
+    private long indexMaxSize = 100000;
+}
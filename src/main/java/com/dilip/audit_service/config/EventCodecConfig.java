@@ -0,0 +1,17 @@
+package com.dilip.audit_service.config;
+
+import com.dilip.audit_service.codec.EventFormat;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.codec")
+public class EventCodecConfig {
+
+    // format of new cold storage segments and WAL records, both formats are always readable
+    private EventFormat format = EventFormat.SMILE;
+}
@@ -0,0 +1,25 @@
+package com.dilip.audit_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.ingest.limiter")
+public class IngestLimiterConfig {
+
+    // concurrent writes to the storage tiers, adapted between minLimit and maxLimit
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    // a write slower than this, or one that failed, shrinks the limit by backoffRatio
+    private Duration latencyThreshold = Duration.ofSeconds(1);
+    private double backoffRatio = 0.9;
+    // how long rejected REST callers are asked to wait, and the minimum time the Kafka listener stays paused
+    private Duration retryAfter = Duration.ofSeconds(1);
+}
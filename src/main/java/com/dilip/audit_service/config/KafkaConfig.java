@@ -0,0 +1,55 @@
+package com.dilip.audit_service.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.CommonErrorHandler;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+
+    public static final String AUDIT_EVENTS_TOPIC = "audit-events";
+    public static final String AUDIT_EVENTS_DLT = AUDIT_EVENTS_TOPIC + ".DLT";
+
+    /**
+     * A failed batch is retried with exponential backoff (consumer paused meanwhile) and never skipped: the
+     * default handler gives up after 10 immediate retries, which turns a store outage into a redelivery storm
+     * followed by lost events.
+     */
+    @Bean
+    public CommonErrorHandler kafkaErrorHandler() {
+        ExponentialBackOff backOff = new ExponentialBackOff(500, 2.0);
+        backOff.setMaxInterval(30_000);
+        return new DefaultErrorHandler(backOff);
+    }
+
+    /**
+     * Publishes records that can never be processed (not an audit event) to {@value #AUDIT_EVENTS_DLT} with their
+     * original bytes and the standard {@code kafka_dlt-*} headers (original topic, partition, offset, exception).
+     * Uses its own byte[] valued template on top of the application's producer settings.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer auditEventDeadLetterRecoverer(ProducerFactory<?, ?> producerFactory) {
+        KafkaTemplate<?, ?> template = new KafkaTemplate<>(producerFactory,
+                Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+        // the broker picks the partition, the dead-letter topic does not mirror the source partitioning
+        return new DeadLetterPublishingRecoverer(template,
+                (record, e) -> new TopicPartition(AUDIT_EVENTS_DLT, -1));
+    }
+
+    @Bean
+    public NewTopic auditEventsDeadLetterTopic() {
+        return TopicBuilder.name(AUDIT_EVENTS_DLT).partitions(1).build();
+    }
+}
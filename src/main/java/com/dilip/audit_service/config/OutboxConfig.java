@@ -0,0 +1,26 @@
+package com.dilip.audit_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.outbox")
+public class OutboxConfig {
+
+    // journal of events stored in one tier only, replayed on startup; they are acknowledged, so it must be on a
+    // persistent volume
+    private String directory = "/var/lib/audit-service/outbox";
+    // events retried per tier and reconcile round
+    private int batchSize = 500;
+    // pending events kept on the heap, the others are read back from the journal when they are due
+    private int maxResidentWrites = 10000;
+    // retry delay doubles after every failed attempt, starting at initialBackoff and capped at maxBackoff
+    private Duration initialBackoff = Duration.ofSeconds(5);
+    private Duration maxBackoff = Duration.ofMinutes(15);
+}
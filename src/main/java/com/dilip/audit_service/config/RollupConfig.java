@@ -0,0 +1,29 @@
+package com.dilip.audit_service.config;
+
+import com.dilip.audit_service.rollup.RollupResolution;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.rollup")
+public class RollupConfig {
+
+    // per-minute and per-hour event counts maintained at ingest time, served by /api/audit/stats when possible
+    private boolean enabled = true;
+    // how often the in-memory counters are added to the rollup index, rollups lag behind ingest by up to this
+    private Duration flushInterval = Duration.ofSeconds(10);
+    // per-minute rollups older than this are deleted, they are only used for short, recent ranges
+    private Duration minuteRetention = Duration.ofDays(2);
+    // per-hour rollups older than this are deleted, keep it equal to the delete age of the index lifecycle policy
+    private Duration hourRetention = Duration.ofDays(30);
+
+    public Duration retentionOf(RollupResolution resolution) {
+        return resolution == RollupResolution.MINUTE ? minuteRetention : hourRetention;
+    }
+}
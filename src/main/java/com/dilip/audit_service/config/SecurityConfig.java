@@ -27,11 +27,16 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/audit/logs/event/*").authenticated() // for /{eventId}
                         .requestMatchers(HttpMethod.GET, "/api/audit/logs/user/*").authenticated() // for /{eventId}
                         .requestMatchers(HttpMethod.GET, "/api/audit/query").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/audit/export").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/audit/stats").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/audit/logs/event/_batch").authenticated()
 
-                        // Allow POST to /api/audit/logs without authentication
+                        // Allow POST to /api/audit/logs (and its bulk variant) without authentication
                         .requestMatchers(HttpMethod.POST, "/api/audit/logs").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/audit/logs/_bulk").permitAll()
 
-                        // Actuator endpoint ADMIN only
+                        // Admin and Actuator endpoints ADMIN only
+                        .requestMatchers("/api/audit/admin/**").hasRole("ADMIN")
                         .requestMatchers("/actuator/**").hasRole("ADMIN")
 
                         // Allow all other requests
@@ -0,0 +1,21 @@
+package com.dilip.audit_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.tiering")
+public class TieringConfig {
+
+    // events younger than this are served by the transient (hot) store, older ones by cold storage
+    private Duration hotRetention = Duration.ofDays(14);
+    // searches without a startTime are served by the hot tier only unless this is set, avoids full bucket scans
+    private boolean includeColdWhenUnbounded = false;
+    private int queryParallelism = 4;
+}
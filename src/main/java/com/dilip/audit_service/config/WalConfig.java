@@ -0,0 +1,25 @@
+package com.dilip.audit_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.wal")
+public class WalConfig {
+
+    // when enabled, POST /api/audit/logs is acknowledged once the event is fsync'ed to the local log
+    private boolean enabled = false;
+    // events in the log are acknowledged, so it must be on a persistent volume
+    private String directory = "/var/lib/audit-service/wal";
+    // size of one memory-mapped segment file, a record can not be larger than a segment
+    private int segmentBytes = 64 * 1024 * 1024;
+    // number of records handed to the storage tiers per drain round
+    private int drainBatchSize = 500;
+    private Duration drainInterval = Duration.ofMillis(200);
+}
@@ -0,0 +1,21 @@
+package com.dilip.audit_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "audit.write")
+public class WritePipelineConfig {
+
+    // a tier that does not answer within its timeout is reported as failed, the write is not retried here
+    private Duration transientTimeout = Duration.ofSeconds(5);
+    private Duration coldStorageTimeout = Duration.ofSeconds(10);
+    // worker threads when virtual threads are not available (Java < 21)
+    private int parallelism = 16;
+}
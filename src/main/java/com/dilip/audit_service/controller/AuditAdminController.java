@@ -0,0 +1,25 @@
+package com.dilip.audit_service.controller;
+
+import com.dilip.audit_service.common.DivergenceReport;
+import com.dilip.audit_service.outbox.PendingWriteJournal;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/audit/admin")
+public class AuditAdminController {
+
+    private final PendingWriteJournal pendingWriteJournal;
+
+    public AuditAdminController(PendingWriteJournal pendingWriteJournal) {
+        this.pendingWriteJournal = pendingWriteJournal;
+    }
+
+    // events stored in one tier only that the reconciler has not caught up on yet
+    @GetMapping("/divergence")
+    public ResponseEntity<DivergenceReport> getDivergence() {
+        return ResponseEntity.ok(pendingWriteJournal.report());
+    }
+}
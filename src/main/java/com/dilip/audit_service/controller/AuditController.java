@@ -1,33 +1,186 @@
 package com.dilip.audit_service.controller;
 
+import com.dilip.audit_service.common.AuditStats;
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.BulkIngestResult;
+import com.dilip.audit_service.common.BulkWriteResult;
 import com.dilip.audit_service.common.DeletionResult;
+import com.dilip.audit_service.data.entity.AuditBatchRequest;
 import com.dilip.audit_service.data.entity.AuditLog;
 import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.exception.BadRequestException;
+import com.dilip.audit_service.exception.TooManyRequestsException;
 import com.dilip.audit_service.services.AuditService;
+import com.dilip.audit_service.services.AuditStatsService;
+import com.dilip.audit_service.services.IngestMetrics;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/audit")
 public class AuditController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_FLUSH_EVERY = 500;
+
     private final AuditService auditService;
+    private final AuditStatsService auditStatsService;
+    private final ObjectMapper objectMapper;
+    private final IngestMetrics ingestMetrics;
+
+    @Value("${audit.batch.maxEventIds:1000}")
+    private int maxBatchEventIds;
+
+    @Value("${audit.bulk.chunkSize:500}")
+    private int bulkChunkSize;
+
+    @Value("${audit.bulk.maxEvents:100000}")
+    private int maxBulkEvents;
 
-    public AuditController(AuditService auditService) {
+    public AuditController(AuditService auditService, AuditStatsService auditStatsService,
+                           ObjectMapper objectMapper, IngestMetrics ingestMetrics) {
         this.auditService = auditService;
+        this.auditStatsService = auditStatsService;
+        this.objectMapper = objectMapper;
+        this.ingestMetrics = ingestMetrics;
     }
 
     @PostMapping("/logs")
     public ResponseEntity<Void> writeAuditLog(@RequestBody AuditLog auditLog) {
-        auditService.saveAuditLog(auditLog);
+        if (auditLog.getTimestamp() == null) {
+            ingestMetrics.deserializationFailure(IngestMetrics.REST);
+            throw new BadRequestException("timestamp is required");
+        }
+        try {
+            auditService.saveAuditLog(auditLog);
+        } catch (RuntimeException e) {
+            ingestMetrics.failed(IngestMetrics.REST, 1);
+            throw e;
+        }
+        ingestMetrics.stored(IngestMetrics.REST, 1);
         return new ResponseEntity<>(HttpStatus.CREATED);
     }
 
+    /**
+     * Ingests NDJSON, one event per line. The body is parsed incrementally and written in chunks through the
+     * bulk write path, so memory is bounded by the chunk size; the response reports every line separately.
+     * A line that is not valid JSON ends the parsing, the events before it are still stored.
+     */
+    @PostMapping(value = "/logs/_bulk", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkIngestResult> bulkWriteAuditLogs(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        List<BulkIngestResult.Item> items = new ArrayList<>();
+        List<AuditLog> chunk = new ArrayList<>(bulkChunkSize);
+        List<Integer> chunkLines = new ArrayList<>(bulkChunkSize);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            while (true) {
+                int line = parser.currentLocation().getLineNr();
+                JsonNode node;
+                try {
+                    if (parser.nextToken() == null) {
+                        break;
+                    }
+                    line = parser.currentTokenLocation().getLineNr();
+                    node = objectMapper.readTree(parser);
+                } catch (JsonProcessingException e) {
+                    items.add(new BulkIngestResult.Item(line, null, HttpStatus.BAD_REQUEST.value(),
+                            "malformed NDJSON, the rest of the body was ignored: " + e.getOriginalMessage()));
+                    break;
+                }
+                if (items.size() + chunk.size() >= maxBulkEvents) {
+                    items.add(new BulkIngestResult.Item(line, null, HttpStatus.BAD_REQUEST.value(),
+                            "at most %d events per request, the rest of the body was ignored".formatted(maxBulkEvents)));
+                    break;
+                }
+
+                try {
+                    if (node == null || !node.isObject()) {
+                        throw new BadRequestException("each line must be a JSON object");
+                    }
+                    AuditLog auditLog = objectMapper.treeToValue(node, AuditLog.class);
+                    if (auditLog.getEventId() == null || auditLog.getEventId().isBlank()) {
+                        throw new BadRequestException("eventId is required");
+                    }
+                    if (auditLog.getTimestamp() == null) {
+                        throw new BadRequestException("timestamp is required");
+                    }
+                    chunk.add(auditLog);
+                    chunkLines.add(line);
+                } catch (JsonProcessingException | BadRequestException e) {
+                    ingestMetrics.deserializationFailure(IngestMetrics.REST);
+                    String error = e instanceof JsonProcessingException jsonError ? jsonError.getOriginalMessage() : e.getMessage();
+                    items.add(new BulkIngestResult.Item(line, node == null ? null : node.path("eventId").asText(null),
+                            HttpStatus.BAD_REQUEST.value(), error));
+                }
+                if (chunk.size() == bulkChunkSize) {
+                    writeChunk(chunk, chunkLines, items);
+                }
+            }
+        }
+        writeChunk(chunk, chunkLines, items);
+
+        ingestMetrics.batch(IngestMetrics.REST, items.size());
+        items.sort(Comparator.comparingInt(BulkIngestResult.Item::line));
+        boolean errors = items.stream().anyMatch(item -> item.status() != HttpStatus.CREATED.value());
+        long took = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        return ResponseEntity.ok(new BulkIngestResult(took, errors, items));
+    }
+
+    private void writeChunk(List<AuditLog> chunk, List<Integer> chunkLines, List<BulkIngestResult.Item> items) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        BulkWriteResult result;
+        try {
+            result = auditService.saveAuditLogs(chunk);
+        } catch (TooManyRequestsException e) {
+            ingestMetrics.failed(IngestMetrics.REST, chunk.size());
+            // like an es_rejected_execution_exception: the items are rejected, the caller retries them later
+            for (int i = 0; i < chunk.size(); i++) {
+                items.add(new BulkIngestResult.Item(chunkLines.get(i), chunk.get(i).getEventId(),
+                        HttpStatus.TOO_MANY_REQUESTS.value(), e.getReason()));
+            }
+            chunk.clear();
+            chunkLines.clear();
+            return;
+        }
+        ingestMetrics.stored(IngestMetrics.REST, result.succeeded());
+        ingestMetrics.failed(IngestMetrics.REST, result.failures().size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String eventId = chunk.get(i).getEventId();
+            String failure = result.failures().get(eventId);
+            items.add(failure == null
+                    ? new BulkIngestResult.Item(chunkLines.get(i), eventId, HttpStatus.CREATED.value(), null)
+                    : new BulkIngestResult.Item(chunkLines.get(i), eventId, HttpStatus.SERVICE_UNAVAILABLE.value(), failure));
+        }
+        chunk.clear();
+        chunkLines.clear();
+    }
+
     @GetMapping("/logs")
     public ResponseEntity<List<AuditLog>> getAuditLogs() {
         List<AuditLog> logs = auditService.queryAuditLogs();
@@ -47,12 +200,78 @@ public class AuditController {
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    @PostMapping("/logs/event/_batch")
+    public ResponseEntity<BatchLookupResult> getAuditLogsByEventIds(@RequestBody AuditBatchRequest request) {
+        List<String> eventIds = request.getEventIds();
+        if (eventIds == null || eventIds.isEmpty()) {
+            throw new BadRequestException("eventIds must not be empty");
+        }
+        if (eventIds.size() > maxBatchEventIds) {
+            throw new BadRequestException("at most %d eventIds per batch".formatted(maxBatchEventIds));
+        }
+        return ResponseEntity.ok(auditService.findByEventIds(eventIds));
+    }
+
     @GetMapping("/query")
-    public ResponseEntity<List<AuditLog>> advancedSearch(@RequestBody AuditSearchRequest request) {
+    public ResponseEntity<?> advancedSearch(@RequestBody AuditSearchRequest request) {
+        // a cursor (even an empty one) switches to cursor pagination and a {items, nextCursor} response
+        if (request.getCursor() != null) {
+            return ResponseEntity.ok(auditService.advancedSearchPage(request));
+        }
         List<AuditLog> results = auditService.advancedSearch(request);
         return ResponseEntity.ok(results);
     }
 
+    /**
+     * Streams every matching event as NDJSON (format=ndjson) or gzip compressed NDJSON (format=gzip) with
+     * chunked transfer encoding. Filters are bound from the query string, page and size are ignored.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(AuditSearchRequest request,
+                                                                 @RequestParam(defaultValue = "ndjson") String format) {
+        boolean gzip = switch (format) {
+            case "ndjson" -> false;
+            case "gzip" -> true;
+            default -> throw new BadRequestException("unsupported export format: " + format);
+        };
+
+        // opened on the request thread so authorization sees the caller's security context
+        Stream<AuditLog> auditLogs = auditService.exportAuditLogs(request);
+        StreamingResponseBody body = outputStream -> {
+            try (auditLogs;
+                 OutputStream out = gzip ? new GZIPOutputStream(outputStream, 64 * 1024) : outputStream;
+                 SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+                int written = 0;
+                Iterator<AuditLog> iterator = auditLogs.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                    // first byte goes out right away, afterwards flush in chunks
+                    if (++written == 1 || written % EXPORT_FLUSH_EVERY == 0) {
+                        writer.flush();
+                    }
+                }
+            }
+        };
+
+        String fileName = gzip ? "audit-export.ndjson.gz" : "audit-export.ndjson";
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    /**
+     * Counts per eventType, sourceService and entityType, a histogram over the timestamp and the top users for
+     * the events matching the filters, which are bound from the query string like for the export. With
+     * {@code topUsers=0} eligible requests are served from the ingest-time rollups.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<AuditStats> getStats(AuditSearchRequest request,
+                                               @RequestParam(defaultValue = "1h") String interval,
+                                               @RequestParam(defaultValue = "10") int topUsers) {
+        return ResponseEntity.ok(auditStatsService.stats(request, interval, topUsers));
+    }
+
     @DeleteMapping("/logs/event/{eventId}")
     public ResponseEntity<?> deleteEvent(@PathVariable String eventId) {
 
@@ -0,0 +1,16 @@
+package com.dilip.audit_service.data.entity;
+
+import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Data
+@Getter
+@Setter
+@ToString
+public class AuditBatchRequest {
+    private List<String> eventIds;
+}
@@ -13,26 +13,43 @@ import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 import org.springframework.data.elasticsearch.annotations.DateFormat;
 
+/**
+ * Audit event. The {@code @Field} annotations mirror the mapping of the index template
+ * (src/main/resources/elasticsearch/audit-logs-template.json), which is what Elasticsearch actually uses:
+ * identifiers are keyword only (exact match, sort, aggregations), {@code changeSummary} is flattened so new
+ * attribute names never add mappings.
+ */
 @Data
 @Getter
 @Setter
 @ToString
 public class AuditLog {
+    @Field(type = FieldType.Keyword)
     private String eventId;
     @Field(type = FieldType.Date, format = DateFormat.date_time)
     private Instant timestamp;
+    @Field(type = FieldType.Keyword)
     private String sourceService;
+    @Field(type = FieldType.Keyword)
     private String eventType;
+    @Field(type = FieldType.Keyword)
     private String entityType;
+    @Field(type = FieldType.Keyword)
     private String entityId;
+    @Field(type = FieldType.Object)
     private ChangedBy changedBy;
+    @Field(type = FieldType.Flattened)
     private Map<String, ChangeDetail> changeSummary;
+    @Field(type = FieldType.Object)
     private Metadata metadata;
 
     @Data
     public static class ChangedBy {
+        @Field(type = FieldType.Keyword)
         private String username;
+        @Field(type = FieldType.Keyword)
         private String userId;
+        @Field(type = FieldType.Keyword)
         private List<String> roles;
     }
 
@@ -44,7 +61,10 @@ public class AuditLog {
 
     @Data
     public static class Metadata {
+        @Field(type = FieldType.Ip, ignoreMalformed = true)
         private String ipAddress;
+        // only ever returned, never sorted or aggregated on
+        @Field(type = FieldType.Keyword, docValues = false, ignoreAbove = 1024)
         private String userAgent;
     }
 }
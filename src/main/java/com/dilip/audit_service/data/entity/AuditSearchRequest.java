@@ -24,4 +24,6 @@ public class AuditSearchRequest {
     private int page = 0;
     private int size = 10;
     private String sort;
+    // opaque token of cursor pagination, "" requests the first page (page is ignored in that mode)
+    private String cursor;
 }
\ No newline at end of file
@@ -21,4 +21,10 @@ public class UserContext {
     public boolean isAdmin() {
         return roles.contains("ROLE_ADMIN"); // or whatever role your system uses
     }
+
+    // admins see every audit log, everybody else only the ones they changed
+    public boolean canAccess(AuditLog auditLog) {
+        return isAdmin()
+                || (auditLog.getChangedBy() != null && userId.equals(auditLog.getChangedBy().getUserId()));
+    }
 }
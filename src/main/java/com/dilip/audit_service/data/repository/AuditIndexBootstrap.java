@@ -0,0 +1,66 @@
+package com.dilip.audit_service.data.repository;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Installs the lifecycle policy and the index template of the daily audit indices, and the index template of
+ * the rollup index (see {@link AuditIndexLayout}) at startup, before the first event is written. All requests
+ * are idempotent puts, so the definitions shipped with the running version always win.
+ */
+@Component
+@Profile({"dev", "prod"})
+@ConditionalOnProperty(name = "audit.index.bootstrap", havingValue = "true", matchIfMissing = true)
+public class AuditIndexBootstrap {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditIndexBootstrap.class);
+    private static final String POLICY_RESOURCE = "elasticsearch/audit-logs-policy.json";
+    private static final String TEMPLATE_RESOURCE = "elasticsearch/audit-logs-template.json";
+    private static final String ROLLUPS_TEMPLATE_RESOURCE = "elasticsearch/audit-rollups-template.json";
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    public AuditIndexBootstrap(ElasticsearchClient elasticsearchClient) {
+        this.elasticsearchClient = elasticsearchClient;
+    }
+
+    @PostConstruct
+    void install() throws IOException {
+        // the alias cannot be created while the single index of earlier versions still holds its name
+        boolean legacyIndex = elasticsearchClient.indices()
+                .get(request -> request.index(AuditIndexLayout.ALIAS).ignoreUnavailable(true))
+                .result()
+                .containsKey(AuditIndexLayout.ALIAS);
+        if (legacyIndex) {
+            throw new IllegalStateException("index " + AuditIndexLayout.ALIAS + " must be reindexed into "
+                    + AuditIndexLayout.INDEX_PREFIX + "* and deleted before the alias can replace it");
+        }
+
+        try (InputStream policy = new ClassPathResource(POLICY_RESOURCE).getInputStream()) {
+            elasticsearchClient.ilm().putLifecycle(request -> request
+                    .name(AuditIndexLayout.POLICY)
+                    .withJson(policy));
+        }
+        putIndexTemplate(AuditIndexLayout.TEMPLATE, TEMPLATE_RESOURCE);
+        putIndexTemplate(AuditIndexLayout.ROLLUPS_TEMPLATE, ROLLUPS_TEMPLATE_RESOURCE);
+        log.info("installed lifecycle policy {} and index templates {}, {}", AuditIndexLayout.POLICY,
+                AuditIndexLayout.TEMPLATE, AuditIndexLayout.ROLLUPS_TEMPLATE);
+    }
+
+    private void putIndexTemplate(String name, String resource) throws IOException {
+        try (InputStream template = new ClassPathResource(resource).getInputStream()) {
+            elasticsearchClient.indices().putIndexTemplate(request -> request
+                    .name(name)
+                    .withJson(template));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.dilip.audit_service.data.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Index layout of the transient (Elasticsearch) tier.
+ * <pre>
+ * audit-logs-2025.05.05      daily index, holds the events whose timestamp falls on that UTC day
+ * audit-logs                 alias over all daily indices, added by the index template
+ * audit-logs-template        index template: settings, mapping, alias and lifecycle policy of audit-logs-*
+ * audit-logs-policy          lifecycle policy: force-merge once the day is over, delete after the retention
+ * audit-rollups              per-minute and per-hour event counts, with its own index template
+ * </pre>
+ * Events are routed by their own timestamp rather than rolled over by size, so a search with a time range only
+ * has to touch the days it overlaps and expired data is dropped a whole index at a time.
+ */
+public final class AuditIndexLayout {
+
+    public static final String ALIAS = "audit-logs";
+    public static final String INDEX_PREFIX = ALIAS + "-";
+    public static final String TEMPLATE = ALIAS + "-template";
+    public static final String POLICY = ALIAS + "-policy";
+    public static final String ROLLUPS = "audit-rollups";
+    public static final String ROLLUPS_TEMPLATE = ROLLUPS + "-template";
+
+    // beyond this many days the per-day index list is longer than it is worth, search the alias instead
+    static final int MAX_SEARCH_DAYS = 92;
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+
+    private AuditIndexLayout() {
+    }
+
+    /**
+     * Daily index of an event. Ingest rejects events without a timestamp: falling back to the current time would
+     * send a retry on another day to another index, where op_type create can not detect the duplicate.
+     */
+    public static String indexOf(Instant timestamp) {
+        if (timestamp == null) {
+            throw new IllegalArgumentException("audit event has no timestamp");
+        }
+        return INDEX_PREFIX + DAY_FORMAT.format(day(timestamp));
+    }
+
+    /**
+     * Indices to search for events between {@code startTime} and {@code endTime}, either bound may be null.
+     * Days are given as wildcard expressions, which match nothing instead of failing when a day has no events
+     * or has already been deleted by the lifecycle policy.
+     */
+    public static String[] searchIndices(Instant startTime, Instant endTime) {
+        if (startTime == null) {
+            return new String[]{ALIAS};
+        }
+        LocalDate first = day(startTime);
+        // open ended: up to tomorrow, to include events from producers with a clock slightly ahead
+        LocalDate last = endTime != null ? day(endTime) : day(Instant.now()).plusDays(1);
+        if (last.isBefore(first)) {
+            last = first;
+        }
+        if (ChronoUnit.DAYS.between(first, last) >= MAX_SEARCH_DAYS) {
+            return new String[]{ALIAS};
+        }
+        return first.datesUntil(last.plusDays(1))
+                .map(day -> INDEX_PREFIX + DAY_FORMAT.format(day) + "*")
+                .toArray(String[]::new);
+    }
+
+    private static LocalDate day(Instant timestamp) {
+        return LocalDate.ofInstant(timestamp, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,48 @@
+package com.dilip.audit_service.data.repository;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.exception.BadRequestException;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * In-memory equivalent of the search criteria, used by repositories that cannot push filters to the store.
+ */
+public final class AuditLogMatcher {
+
+    private AuditLogMatcher() {
+    }
+
+    public static Predicate<AuditLog> of(AuditSearchRequest request) {
+        Instant startTime = parseTime(request.getStartTime());
+        Instant endTime = parseTime(request.getEndTime());
+
+        return log -> (request.getEventId() == null || request.getEventId().equals(log.getEventId()))
+                && (request.getEntityType() == null || request.getEntityType().equals(log.getEntityType()))
+                && (request.getEntityId() == null || request.getEntityId().equals(log.getEntityId()))
+                && (request.getEventType() == null || request.getEventType().equals(log.getEventType()))
+                && (request.getSourceService() == null || request.getSourceService().equals(log.getSourceService()))
+                && (request.getChangedByUserId() == null ||
+                        (log.getChangedBy() != null && Objects.equals(request.getChangedByUserId(), log.getChangedBy().getUserId())))
+                && (request.getRoles() == null || request.getRoles().isEmpty() ||
+                        (log.getChangedBy() != null && log.getChangedBy().getRoles() != null
+                                && request.getRoles().stream().anyMatch(log.getChangedBy().getRoles()::contains)))
+                && (startTime == null || (log.getTimestamp() != null && !log.getTimestamp().isBefore(startTime)))
+                && (endTime == null || (log.getTimestamp() != null && !log.getTimestamp().isAfter(endTime)));
+    }
+
+    public static Instant parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("invalid ISO-8601 timestamp: " + value, e);
+        }
+    }
+}
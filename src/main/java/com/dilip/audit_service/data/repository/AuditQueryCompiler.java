@@ -0,0 +1,74 @@
+package com.dilip.audit_service.data.repository;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles an {@link AuditSearchRequest} into an Elasticsearch bool query made of filter clauses only: exact
+ * term matches on the keyword fields, a range on {@code timestamp} and the user scoping. Filter clauses are not
+ * scored and are cached per segment, so repeated dashboard queries are served from the filter cache.
+ * {@link AuditLogMatcher} is the in-memory equivalent.
+ * <p>
+ * Searches include the end of the range; stats exclude it, like the rollups they are compared with, so adjacent
+ * ranges count every event once.
+ */
+public final class AuditQueryCompiler {
+
+    private AuditQueryCompiler() {
+    }
+
+    public static Query compile(AuditSearchRequest request, UserContext user) {
+        return compile(request, user, false);
+    }
+
+    /**
+     * @param endExclusive whether {@code endTime} itself is outside the range, as for stats
+     */
+    public static Query compile(AuditSearchRequest request, UserContext user, boolean endExclusive) {
+        List<Query> filters = new ArrayList<>();
+        term(filters, "eventId", request.getEventId());
+        term(filters, "eventType", request.getEventType());
+        term(filters, "entityType", request.getEntityType());
+        term(filters, "entityId", request.getEntityId());
+        term(filters, "sourceService", request.getSourceService());
+
+        // admins may filter on any user, everybody else only ever sees their own events
+        term(filters, "changedBy.userId", user.isAdmin() ? request.getChangedByUserId() : user.getUserId());
+
+        if (request.getRoles() != null && !request.getRoles().isEmpty()) {
+            List<FieldValue> roles = request.getRoles().stream().map(FieldValue::of).toList();
+            filters.add(Query.of(q -> q.terms(t -> t.field("changedBy.roles").terms(v -> v.value(roles)))));
+        }
+
+        Instant startTime = AuditLogMatcher.parseTime(request.getStartTime());
+        Instant endTime = AuditLogMatcher.parseTime(request.getEndTime());
+        if (startTime != null || endTime != null) {
+            filters.add(Query.of(q -> q.range(r -> r.date(range -> {
+                range.field("timestamp").format("strict_date_optional_time");
+                if (startTime != null) {
+                    range.gte(startTime.toString());
+                }
+                if (endTime != null && endExclusive) {
+                    range.lt(endTime.toString());
+                } else if (endTime != null) {
+                    range.lte(endTime.toString());
+                }
+                return range;
+            }))));
+        }
+
+        return Query.of(q -> q.bool(b -> b.filter(filters)));
+    }
+
+    private static void term(List<Query> filters, String field, String value) {
+        if (value != null) {
+            filters.add(Query.of(q -> q.term(t -> t.field(field).value(value))));
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.dilip.audit_service.data.repository;
 
+import com.dilip.audit_service.common.AuditSearchPage;
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.BulkWriteResult;
 import com.dilip.audit_service.common.DeletionResult;
 import com.dilip.audit_service.data.entity.AuditLog;
 import com.dilip.audit_service.data.entity.AuditSearchRequest;
@@ -7,19 +10,32 @@ import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditRepository {
 
     void save(AuditLog auditLog);
 
+    BulkWriteResult saveAll(List<AuditLog> auditLogs);
+
     List<AuditLog> findAll();
 
     List<AuditLog> findByUserId(String userId);
 
     Optional<AuditLog> findByEventId(String eventId);
 
+    BatchLookupResult findByEventIds(List<String> eventIds);
+
     List<AuditLog> advancedSearch(AuditSearchRequest request);
 
+    AuditSearchPage searchPage(AuditSearchRequest request);
+
+    /**
+     * Lazily streams every event matching the request, ignoring page and size. The stream holds store
+     * resources (scroll contexts, connections) and must be closed by the caller.
+     */
+    Stream<AuditLog> streamSearch(AuditSearchRequest request);
+
     DeletionResult deleteEvent(String eventId);
 }
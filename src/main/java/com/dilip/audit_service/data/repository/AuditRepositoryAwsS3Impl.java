@@ -1,64 +1,96 @@
 package com.dilip.audit_service.data.repository;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.dilip.audit_service.common.AuditSearchPage;
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.BulkWriteResult;
 import com.dilip.audit_service.common.DeletionResult;
 import com.dilip.audit_service.data.entity.AuditLog;
 import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.exception.BadRequestException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.ArrayList;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @Repository("s3")
 @Profile({"dev", "prod"})
 public class AuditRepositoryAwsS3Impl implements AuditRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(AuditRepositoryAwsS3Impl.class);
     private final AmazonS3 amazonS3;
     private final ObjectMapper mapper;
+    private final AuditSegmentWriter segmentWriter;
+    private final S3ScanEngine scanEngine;
+    private final SegmentIndex segmentIndex;
 
     @Value("${db.coldStorage.bucketName}")
     private String bucketName;
 
+    @Value("${db.coldStorage.scan.legacyObjects:true}")
+    private boolean scanLegacyObjects;
+
 
     @Autowired
-    public AuditRepositoryAwsS3Impl(AmazonS3 s3, ObjectMapper mapper) {
+    public AuditRepositoryAwsS3Impl(AmazonS3 s3,
+                                    ObjectMapper mapper,
+                                    AuditSegmentWriter segmentWriter,
+                                    S3ScanEngine scanEngine,
+                                    SegmentIndex segmentIndex) {
         this.amazonS3 = s3;
         this.mapper = mapper;
+        this.segmentWriter = segmentWriter;
+        this.scanEngine = scanEngine;
+        this.segmentIndex = segmentIndex;
     }
 
 
     @Override
     public void save(AuditLog auditLog) {
         try {
-            String key = "logs/" + auditLog.getEventId() + ".json";
-            String json = mapper.writeValueAsString(auditLog);
-            amazonS3.putObject(bucketName, key, json); //TODO: assumption is bucket already exists.
+            segmentWriter.append(auditLog); //TODO: assumption is bucket already exists.
         } catch (Exception e) {
             throw new RuntimeException("Failed to save audit log to S3", e);
         }
     }
 
     @Override
-    public List<AuditLog> findAll() {
+    public BulkWriteResult saveAll(List<AuditLog> auditLogs) {
         try {
-            List<AuditLog> logs = new ArrayList<>();
-            var objectListing = amazonS3.listObjects(bucketName, "logs/");
-            var summaries = objectListing.getObjectSummaries();
-            for (var summary : summaries) {
-                String content = new String(amazonS3.getObject(bucketName, summary.getKey()).getObjectContent().readAllBytes());
-                logs.add(mapper.readValue(content, AuditLog.class));
-            }
-            return logs;
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to fetch audit logs from S3", e);
+            segmentWriter.appendAll(auditLogs);
+            return BulkWriteResult.success(auditLogs.size());
+        } catch (RuntimeException e) {
+            Map<String, String> failures = new LinkedHashMap<>();
+            auditLogs.forEach(auditLog -> failures.put(auditLog.getEventId(), e.getMessage()));
+            return new BulkWriteResult(auditLogs.size(), failures);
         }
     }
 
+    @Override
+    public List<AuditLog> findAll() {
+        return advancedSearch(new AuditSearchRequest());
+    }
+
     @Override
     public List<AuditLog> findByUserId(String userId) {
         return List.of();
@@ -67,28 +99,143 @@ public class AuditRepositoryAwsS3Impl implements AuditRepository {
     @Override
     public Optional<AuditLog> findByEventId(String eventId) {
         try {
-            String key = "logs/" + eventId + ".json";
-            if (!amazonS3.doesObjectExist(bucketName, key)) {
-                return Optional.empty();
+            Predicate<AuditLog> sameEvent = auditLog -> eventId.equals(auditLog.getEventId());
+            String key = ColdStorageKeyLayout.legacyEventKey(eventId);
+            if (amazonS3.doesObjectExist(bucketName, key)) {
+                return scanEngine.readObject(key, sameEvent).stream().findFirst();
             }
-            String content = new String(amazonS3.getObject(bucketName, key).getObjectContent().readAllBytes());
-            return Optional.of(mapper.readValue(content, AuditLog.class));
+            String segmentKey = findSegmentKeys(Set.of(eventId)).get(eventId);
+            return segmentKey == null
+                    ? Optional.empty()
+                    : scanEngine.readObject(segmentKey, sameEvent).stream().findFirst();
         } catch (Exception e) {
             throw new RuntimeException("Failed to fetch audit log from S3", e);
         }
     }
 
+    /**
+     * Resolves the segments of all requested events through the segment index and, for the rest, a single pass
+     * over the manifests, then downloads the segments and any remaining legacy objects in parallel.
+     */
+    @Override
+    public BatchLookupResult findByEventIds(List<String> eventIds) {
+        Set<String> requested = new HashSet<>(eventIds);
+        Map<String, String> segmentKeys = findSegmentKeys(requested);
+
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(segmentKeys.values()));
+        eventIds.stream()
+                .filter(eventId -> !segmentKeys.containsKey(eventId))
+                .map(ColdStorageKeyLayout::legacyEventKey)
+                .forEach(keys::add);
+
+        Map<String, AuditLog> byEventId = new HashMap<>();
+        scanEngine.readObjects(keys, auditLog -> requested.contains(auditLog.getEventId()))
+                .values()
+                .forEach(auditLogs -> auditLogs.forEach(auditLog -> byEventId.putIfAbsent(auditLog.getEventId(), auditLog)));
+
+        List<AuditLog> found = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String eventId : eventIds) {
+            AuditLog auditLog = byEventId.get(eventId);
+            if (auditLog != null) {
+                found.add(auditLog);
+            } else {
+                missing.add(eventId);
+            }
+        }
+        return new BatchLookupResult(found, missing);
+    }
+
+    /**
+     * Locates the segments holding the events, so only those segments have to be downloaded and decompressed.
+     * Events not in the {@link SegmentIndex} are looked up in the manifests, which are fetched in parallel and
+     * only until every event is found; what they resolve is added to the index.
+     */
+    private Map<String, String> findSegmentKeys(Set<String> eventIds) {
+        Map<String, String> segmentKeys = new HashMap<>();
+        eventIds.forEach(eventId -> segmentIndex.segmentKeyOf(eventId)
+                .ifPresent(segmentKey -> segmentKeys.put(eventId, segmentKey)));
+        if (segmentKeys.size() == eventIds.size()) {
+            return segmentKeys;
+        }
+
+        Stream<String> manifestKeys = scanEngine.listObjects(ColdStorageKeyLayout.MANIFESTS_PREFIX)
+                .map(S3ObjectSummary::getKey);
+        try (Stream<SegmentManifest> manifests = scanEngine.readManifests(manifestKeys)) {
+            Iterator<SegmentManifest> iterator = manifests.iterator();
+            while (iterator.hasNext() && segmentKeys.size() < eventIds.size()) {
+                SegmentManifest manifest = iterator.next();
+                if (manifest.eventIds() == null) {
+                    continue;
+                }
+                for (String eventId : manifest.eventIds()) {
+                    if (eventIds.contains(eventId) && segmentKeys.putIfAbsent(eventId, manifest.segmentKey()) == null) {
+                        segmentIndex.put(eventId, manifest.segmentKey());
+                    }
+                }
+            }
+        }
+        return segmentKeys;
+    }
+
     @Override
     public List<AuditLog> advancedSearch(AuditSearchRequest request) {
-        // For basic S3 setup, advanced filtering would require loading and filtering in-memory.
-        return findAll().stream()
-                .filter(log -> request.getEntityType() == null || request.getEntityType().equals(log.getEntityType()))
-                .filter(log -> request.getEntityId() == null || request.getEntityId().equals(log.getEntityId()))
-                .filter(log -> request.getEventType() == null || request.getEventType().equals(log.getEventType()))
-                .filter(log -> request.getSourceService() == null || request.getSourceService().equals(log.getSourceService()))
-                .filter(log -> request.getChangedByUserId() == null ||
-                        (log.getChangedBy() != null && request.getChangedByUserId().equals(log.getChangedBy().getUserId())))
-                .toList();
+        // filters, the time window and paging are applied while streaming, nothing beyond the page is retained
+        try (Stream<AuditLog> matches = scanEngine.scanKeys(planKeys(request), AuditLogMatcher.of(request))) {
+            return matches
+                    .skip((long) request.getPage() * request.getSize())
+                    .limit(request.getSize())
+                    .toList();
+        }
+    }
+
+    @Override
+    public Stream<AuditLog> streamSearch(AuditSearchRequest request) {
+        return scanEngine.scanKeys(planKeys(request), AuditLogMatcher.of(request));
+    }
+
+    @Override
+    public AuditSearchPage searchPage(AuditSearchRequest request) {
+        throw new BadRequestException("cursor pagination is not supported by cold storage");
+    }
+
+    /**
+     * Lists only the partitions overlapping the requested time window. Unbounded sides are closed with the
+     * oldest existing partition and the current hour, an unbounded search falls back to the whole logs/ prefix.
+     */
+    private Stream<String> planKeys(AuditSearchRequest request) {
+        Instant startTime = AuditLogMatcher.parseTime(request.getStartTime());
+        Instant endTime = AuditLogMatcher.parseTime(request.getEndTime());
+        if (startTime == null && endTime == null) {
+            return scanEngine.listObjects(ColdStorageKeyLayout.LOGS_PREFIX)
+                    .map(S3ObjectSummary::getKey)
+                    .filter(S3ScanEngine::isEventObject);
+        }
+
+        Instant from = startTime != null ? startTime : oldestPartitionStart().orElse(null);
+        Instant to = endTime != null ? endTime : Instant.now();
+        List<String> prefixes = from == null ? List.of() : ColdStorageQueryPlanner.plan(from, to);
+        log.debug("cold storage search for [{}, {}] lists prefixes {}", startTime, endTime, prefixes);
+
+        Stream<String> partitioned = scanEngine.listObjects(prefixes)
+                .map(S3ObjectSummary::getKey)
+                .filter(S3ScanEngine::isEventObject);
+        if (!scanLegacyObjects) {
+            return partitioned;
+        }
+        // pre-partitioning logs/<eventId>.json objects carry no time in their key, the matcher filters them
+        Stream<String> legacy = scanEngine.listTopLevelObjects(ColdStorageKeyLayout.LOGS_PREFIX)
+                .map(S3ObjectSummary::getKey)
+                .filter(key -> key.endsWith(ColdStorageKeyLayout.LEGACY_SUFFIX));
+        return Stream.concat(legacy, partitioned);
+    }
+
+    private Optional<Instant> oldestPartitionStart() {
+        String partitionsPrefix = ColdStorageKeyLayout.LOGS_PREFIX + "dt=";
+        return scanEngine.firstCommonPrefix(ColdStorageKeyLayout.LOGS_PREFIX, partitionsPrefix)
+                .filter(prefix -> prefix.startsWith(partitionsPrefix))
+                .map(prefix -> prefix.substring(partitionsPrefix.length(), prefix.length() - 1))
+                .map(day -> LocalDate.parse(day).atStartOfDay(ZoneOffset.UTC).toInstant());
     }
 
     @Override
@@ -1,27 +1,43 @@
 package com.dilip.audit_service.data.repository;
 
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.common.AuditSearchPage;
 import com.dilip.audit_service.common.DeletionResult;
 import com.dilip.audit_service.data.entity.AuditLog;
 import com.dilip.audit_service.data.entity.AuditSearchRequest;
 import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.exception.BadRequestException;
 import com.dilip.audit_service.exception.NotFoundException;
+import com.dilip.audit_service.rollup.EventRollups;
 import com.dilip.audit_service.services.UserContextService;
-import org.springframework.data.elasticsearch.core.query.Criteria;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
 import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.MultiGetItem;
 import org.springframework.data.elasticsearch.core.SearchHit;
 import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.SearchHitsIterator;
 import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
 import org.springframework.data.elasticsearch.core.query.*;
+import org.springframework.data.util.StreamUtils;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository("elasticsearch")
 @Profile({"dev", "prod"})
@@ -30,22 +46,86 @@ public class AuditRepositoryElasticImpl implements AuditRepository {
     private static final Logger log = LoggerFactory.getLogger(AuditRepositoryElasticImpl.class);
     private final ElasticsearchOperations elasticsearchOperations;
     private final UserContextService userContextService;
-    private static final String INDEX = "audit-logs";
+    private final ObjectMapper objectMapper;
+    private final EventRollups eventRollups;
+    private static final int STREAM_BATCH_SIZE = 1000;
+    // create of an eventId that is already indexed, i.e. a retried write
+    private static final int CONFLICT = 409;
+
+    @Value("${audit.query.cursorKeepAlive:2m}")
+    private Duration cursorKeepAlive;
 
     @Autowired
     public AuditRepositoryElasticImpl(ElasticsearchOperations elasticsearchOperations,
-                                      UserContextService userContextService) {
+                                      UserContextService userContextService,
+                                      ObjectMapper objectMapper,
+                                      EventRollups eventRollups) {
         this.elasticsearchOperations = elasticsearchOperations;
         this.userContextService = userContextService;
+        this.objectMapper = objectMapper;
+        this.eventRollups = eventRollups;
     }
 
     @Override
     public void save(AuditLog auditLog) {
-        IndexQuery indexQuery = new IndexQueryBuilder()
+        BulkWriteResult result = saveAll(List.of(auditLog));
+        if (result.hasFailures()) {
+            throw new IllegalStateException("failed to index audit event " + auditLog.getEventId() + ": "
+                    + result.failures().values().iterator().next());
+        }
+    }
+
+    /**
+     * Events are immutable, so they are indexed with op_type create: a retried write of an event that is already
+     * indexed is rejected with a conflict, reported as stored, and leaves the event as it is. Only events that
+     * were actually created are counted into the rollups, so retries and redeliveries are not counted twice.
+     */
+
+    @Override
+    public BulkWriteResult saveAll(List<AuditLog> auditLogs) {
+        if (auditLogs.isEmpty()) {
+            return BulkWriteResult.success(0);
+        }
+
+        // single _bulk round trip for the whole batch instead of one index request per event, every item
+        // names the daily index of its event
+        List<IndexQuery> indexQueries = auditLogs.stream()
+                .map(this::toIndexQuery)
+                .toList();
+        try {
+            elasticsearchOperations.bulkIndex(indexQueries, IndexCoordinates.of(AuditIndexLayout.ALIAS));
+            auditLogs.forEach(eventRollups::record);
+            return BulkWriteResult.success(auditLogs.size());
+        } catch (BulkFailureException e) {
+            Set<String> existing = new HashSet<>();
+            Map<String, String> failures = new LinkedHashMap<>();
+            e.getFailedDocuments().forEach((eventId, details) -> {
+                if (Objects.equals(details.status(), CONFLICT)) {
+                    existing.add(eventId);
+                } else {
+                    failures.put(eventId, details.errorMessage());
+                }
+            });
+            auditLogs.stream()
+                    .filter(auditLog -> !existing.contains(auditLog.getEventId())
+                            && !failures.containsKey(auditLog.getEventId()))
+                    .forEach(eventRollups::record);
+            if (failures.isEmpty()) {
+                return BulkWriteResult.success(auditLogs.size());
+            }
+            log.warn("bulk index into {} partially failed: {} of {} events rejected",
+                    AuditIndexLayout.INDEX_PREFIX + "*", failures.size(), auditLogs.size());
+            return new BulkWriteResult(auditLogs.size(), failures);
+        }
+    }
+
+    private IndexQuery toIndexQuery(AuditLog auditLog) {
+        return new IndexQueryBuilder()
                 .withId(auditLog.getEventId())
+                .withIndex(AuditIndexLayout.indexOf(auditLog.getTimestamp()))
                 .withObject(auditLog)
+                .withOpType(IndexQuery.OpType.CREATE)
                 .build();
-        elasticsearchOperations.index(indexQuery, IndexCoordinates.of(INDEX));
     }
 
     @Override
@@ -67,18 +147,144 @@ public class AuditRepositoryElasticImpl implements AuditRepository {
 
     @Override
     public Optional<AuditLog> findByEventId(String eventId) {
-        AuditSearchRequest request = new AuditSearchRequest();
-        request.setEventId(eventId);
-        List<AuditLog> auditLogs = advancedSearch(request);
+        UserContext user = userContextService.getCurrentUser().orElseThrow(() ->
+                new AccessDeniedException("failed to find audit log: unauthenticated request"));
+        return Optional.ofNullable(lookup(List.of(eventId)).get(eventId))
+                .map(LocatedEvent::auditLog)
+                .filter(user::canAccess);
+    }
 
-        if (!auditLogs.isEmpty() && !eventId.equals(auditLogs.get(0).getEventId())) {
-            throw new NotFoundException();
+    @Override
+    public BatchLookupResult findByEventIds(List<String> eventIds) {
+        UserContext user = userContextService.getCurrentUser().orElseThrow(() ->
+                new AccessDeniedException("failed to find audit logs: unauthenticated request"));
+
+        // answered in the order requested
+        Map<String, LocatedEvent> located = lookup(eventIds);
+        List<AuditLog> found = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String eventId : eventIds) {
+            LocatedEvent event = located.get(eventId);
+            if (event != null && user.canAccess(event.auditLog())) {
+                found.add(event.auditLog());
+            } else {
+                missing.add(eventId);
+            }
+        }
+        return new BatchLookupResult(found, missing);
+    }
+
+    /**
+     * Lookup by document _id (the eventId, see {@link #toIndexQuery}). GET/_mget need the concrete daily index,
+     * which is only known from the event's timestamp, so the ids are first fetched with a realtime _mget from
+     * today's and then yesterday's index: recent events are there and are seen before the next refresh. Ids not
+     * found in either fall back to an ids search over the alias, which sees older events once refreshed.
+     */
+    private Map<String, LocatedEvent> lookup(List<String> eventIds) {
+        Map<String, LocatedEvent> located = new HashMap<>();
+        List<String> remaining = List.copyOf(new LinkedHashSet<>(eventIds));
+        Instant now = Instant.now();
+        for (String index : List.of(AuditIndexLayout.indexOf(now), AuditIndexLayout.indexOf(now.minus(Duration.ofDays(1))))) {
+            if (remaining.isEmpty()) {
+                return located;
+            }
+            // items come back in request order; a day without an index yields failed items, not an error
+            List<MultiGetItem<AuditLog>> items = elasticsearchOperations.multiGet(
+                    Query.multiGetQuery(remaining), AuditLog.class, IndexCoordinates.of(index));
+            List<String> notFound = new ArrayList<>();
+            for (int i = 0; i < remaining.size(); i++) {
+                MultiGetItem<AuditLog> item = i < items.size() ? items.get(i) : null;
+                if (item != null && item.hasItem()) {
+                    located.put(remaining.get(i), new LocatedEvent(item.getItem(), index));
+                } else {
+                    notFound.add(remaining.get(i));
+                }
+            }
+            remaining = notFound;
+        }
+        if (remaining.isEmpty()) {
+            return located;
+        }
+
+        List<String> olderIds = remaining;
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(q -> q.ids(ids -> ids.values(olderIds)))
+                .withMaxResults(olderIds.size())
+                .build();
+        for (SearchHit<AuditLog> hit : elasticsearchOperations.search(query, AuditLog.class,
+                IndexCoordinates.of(AuditIndexLayout.ALIAS))) {
+            located.putIfAbsent(hit.getId(), new LocatedEvent(hit.getContent(), hit.getIndex()));
         }
-        return auditLogs.isEmpty() ? Optional.empty() : Optional.of(auditLogs.get(0));
+        return located;
+    }
+
+    // an event and the daily index it was found in
+    private record LocatedEvent(AuditLog auditLog, String index) {
     }
 
     @Override
     public List<AuditLog> advancedSearch(AuditSearchRequest request) {
+        return search(request, authorizeSearch(request));
+    }
+
+    /**
+     * Cursor (search_after) pagination over a point-in-time snapshot. The first page opens the PIT, every
+     * page returns an opaque cursor carrying the PIT id and the sort values of its last hit, so page n costs
+     * the same as page 1. Filters and user scoping are re-applied from the request on every page.
+     */
+    @Override
+    public AuditSearchPage searchPage(AuditSearchRequest request) {
+        UserContext user = authorizeSearch(request);
+
+        SearchCursor cursor = request.getCursor() == null || request.getCursor().isBlank()
+                ? null
+                : SearchCursor.decode(request.getCursor(), objectMapper);
+        String pointInTimeId = cursor != null
+                ? cursor.pointInTimeId()
+                : elasticsearchOperations.openPointInTime(searchIndices(request), cursorKeepAlive);
+
+        // stable total order: requested field (timestamp by default) with eventId as tie breaker
+        Sort primary = parseSort(request.getSort()).orElse(Sort.by(Sort.Direction.DESC, "timestamp"));
+        Sort.Direction direction = primary.iterator().next().getDirection();
+        NativeQueryBuilder queryBuilder = NativeQuery.builder()
+                .withQuery(AuditQueryCompiler.compile(request, user))
+                .withPointInTime(new Query.PointInTime(pointInTimeId, cursorKeepAlive))
+                .withSort(primary.and(Sort.by(direction, sortField("eventId"))))
+                .withPageable(PageRequest.of(0, request.getSize()));
+        if (cursor != null) {
+            queryBuilder.withSearchAfter(cursor.searchAfter());
+        }
+
+        SearchHits<AuditLog> hits = elasticsearchOperations.search(queryBuilder.build(), AuditLog.class);
+        List<SearchHit<AuditLog>> searchHits = hits.getSearchHits();
+        List<AuditLog> items = searchHits.stream()
+                .map(SearchHit::getContent)
+                .collect(Collectors.toList());
+
+        String nextPointInTimeId = hits.getPointInTimeId() != null ? hits.getPointInTimeId() : pointInTimeId;
+        if (searchHits.size() < request.getSize()) {
+            elasticsearchOperations.closePointInTime(nextPointInTimeId);
+            return new AuditSearchPage(items, null);
+        }
+        List<Object> searchAfter = searchHits.get(searchHits.size() - 1).getSortValues();
+        return new AuditSearchPage(items, new SearchCursor(nextPointInTimeId, searchAfter).encode(objectMapper));
+    }
+
+    @Override
+    public Stream<AuditLog> streamSearch(AuditSearchRequest request) {
+        UserContext user = authorizeSearch(request);
+
+        // scroll through the matches in batches, only one batch of hits is held in memory at a time
+        NativeQueryBuilder queryBuilder = NativeQuery.builder()
+                .withQuery(AuditQueryCompiler.compile(request, user))
+                .withPageable(PageRequest.of(0, STREAM_BATCH_SIZE));
+        parseSort(request.getSort()).ifPresent(queryBuilder::withSort);
+        SearchHitsIterator<AuditLog> hits = elasticsearchOperations.searchForStream(
+                queryBuilder.build(), AuditLog.class, searchIndices(request));
+        return StreamUtils.createStreamFromIterator(hits).map(SearchHit::getContent);
+    }
+
+    private UserContext authorizeSearch(AuditSearchRequest request) {
         // Authorization logic remains the same
         Optional<UserContext> userOpt = userContextService.getCurrentUser();
         UserContext user = userOpt.orElseThrow(() ->
@@ -90,54 +296,55 @@ public class AuditRepositoryElasticImpl implements AuditRepository {
                 !Objects.equals(request.getChangedByUserId(), user.getUserId())) {
             throw new AccessDeniedException("failed to perform advanced search: unauthorised request");
         }
-
-        return search(request);
+        return user;
     }
 
-    private List<AuditLog> search(AuditSearchRequest request) {
-        Criteria criteria = new Criteria();
-
-        // Combine multiple criteria as needed:
-        if (request.getEventId() != null) {
-            criteria = criteria.and("eventId").is(request.getEventId());
-        }
-        if (request.getEventType() != null) {
-            criteria = criteria.and("eventType").is(request.getEventType());
-        }
-
-        if (request.getEntityType() != null) {
-            criteria = criteria.and("entityId").is(request.getEntityId());
-        }
-        if (request.getEventType() != null) {
-            criteria = criteria.and("entityType").is(request.getEntityType());
-        }
-
-        if (request.getSourceService() != null) {
-            criteria = criteria.and("sourceService").is(request.getSourceService());
-        }
-
-        Optional<UserContext> userOpt = userContextService.getCurrentUser();
-        if(userOpt.isPresent()) {
-            UserContext user = userOpt.get();
-            if (user.isAdmin() && request.getChangedByUserId() != null) {
-                criteria = criteria.and("changedBy.userId").is(request.getChangedByUserId());
-            }
-            if (!user.isAdmin()) {
-                criteria = criteria.and("changedBy.userId").is(user.getUserId());
-            }
-        }
-
-        CriteriaQuery searchQuery = new CriteriaQuery(
-                criteria, PageRequest.of(request.getPage(), request.getSize()));
+    private List<AuditLog> search(AuditSearchRequest request, UserContext user) {
+        // filter clauses are not scored, so without a requested sort the newest events come first
+        NativeQuery searchQuery = NativeQuery.builder()
+                .withQuery(AuditQueryCompiler.compile(request, user))
+                .withPageable(PageRequest.of(request.getPage(), request.getSize()))
+                .withSort(parseSort(request.getSort()).orElse(Sort.by(Sort.Direction.DESC, "timestamp")))
+                .build();
 
         SearchHits<AuditLog> hits = elasticsearchOperations.search
-                (searchQuery, AuditLog.class, IndexCoordinates.of(INDEX));
+                (searchQuery, AuditLog.class, searchIndices(request));
 
         return hits.stream()
                 .map(SearchHit::getContent)
                 .collect(Collectors.toList());
     }
 
+    // only the daily indices the requested time range overlaps
+    private IndexCoordinates searchIndices(AuditSearchRequest request) {
+        return IndexCoordinates.of(AuditIndexLayout.searchIndices(
+                AuditLogMatcher.parseTime(request.getStartTime()), AuditLogMatcher.parseTime(request.getEndTime())));
+    }
+
+    /**
+     * Parses "field" or "field,asc|desc" into a sort on the matching sortable field.
+     */
+    private Optional<Sort> parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Optional.empty();
+        }
+        String[] parts = sort.split(",");
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(() ->
+                        new BadRequestException("invalid sort direction: " + parts[1]))
+                : Sort.Direction.ASC;
+        return Optional.of(Sort.by(direction, sortField(parts[0].trim())));
+    }
+
+    // identifiers are mapped as keyword (see the index template), so they sort on their own doc values
+    private static String sortField(String field) {
+        return switch (field) {
+            case "timestamp", "eventId", "sourceService", "eventType", "entityType", "entityId", "changedBy.userId" ->
+                    field;
+            default -> throw new BadRequestException("unsupported sort field: " + field);
+        };
+    }
+
     @Override
     public DeletionResult deleteEvent(String eventId) {
         // Authorization logic remains the same
@@ -147,92 +354,17 @@ public class AuditRepositoryElasticImpl implements AuditRepository {
         }
 
         UserContext user = userOpt.get();
-        if (!user.isAdmin()) {
-            AuditLog auditLog = findByEventId(eventId)
-                    .orElseThrow(() -> new AccessDeniedException("Unauthenticated request"));
-
-            if (!auditLog.getChangedBy().getUserId().equals(user.getUserId())) {
-                throw new AccessDeniedException("could not delete from transient database: Unauthenticated request");
-            }
-        }
-
-        // New deletion approach
-//        StringQuery deleteQuery = new StringQuery(
-//                "{\"term\":{\"eventId\":{\"value\":\"" + eventId + "\"}}}"
-//        );
-        Criteria criteria = new Criteria("eventId").is(eventId);
-        Query deleteQuery = new CriteriaQuery(criteria);
-
-        ByQueryResponse deleted = elasticsearchOperations.delete(
-                deleteQuery, AuditLog.class, IndexCoordinates.of(INDEX));
-
-        if (deleted.getDeleted() > 0) {
-            return new DeletionResult.DeletionSuccess(deleted.getDeleted());
-        } else {
+        LocatedEvent event = lookup(List.of(eventId)).get(eventId);
+        if (event == null) {
             return new DeletionResult.DeletionNotFound("could not delete from transient database: Not Found");
         }
+        if (!user.canAccess(event.auditLog())) {
+            throw new AccessDeniedException("could not delete from transient database: Unauthenticated request");
+        }
 
-
-        /*
-         Unhandled cases:
-        2025-05-28T20:48:20.861Z DEBUG 98 --- [audit-service] [nio-8080-exec-1] o.s.security.web.FilterChainProxy        : Securing DELETE /api/audit/logs/event/12345
-
-        2025-05-28T20:48:20.890Z DEBUG 98 --- [audit-service] [nio-8080-exec-1] o.s.s.a.dao.DaoAuthenticationProvider    : Authenticated user
-
-        2025-05-28T20:48:20.890Z DEBUG 98 --- [audit-service] [nio-8080-exec-1] o.s.s.w.a.www.BasicAuthenticationFilter  : Set SecurityContextHolder to UsernamePasswordAuthenticationToken [Principal=com.dilip.audit_service.config.CustomUserDetails [Username=user-001, Password=[PROTECTED], Enabled=true, AccountNonExpired=true, CredentialsNonExpired=true, AccountNonLocked=true, Granted Authorities=[ROLE_USER]], Credentials=[PROTECTED], Authenticated=true, Details=WebAuthenticationDetails [RemoteIpAddress=192.168.65.1, SessionId=null], Granted Authorities=[ROLE_USER]]
-
-        2025-05-28T20:48:20.894Z DEBUG 98 --- [audit-service] [nio-8080-exec-1] o.s.security.web.FilterChainProxy        : Secured DELETE /api/audit/logs/event/12345
-
-        2025-05-28T20:48:20.895Z DEBUG 98 --- [audit-service] [nio-8080-exec-1] o.s.web.servlet.DispatcherServlet        : DELETE "/audit-service/api/audit/logs/event/12345", parameters={}
-
-        2025-05-28T20:47:39.692Z DEBUG 98 --- [audit-service] [io-8080-exec-10] s.w.s.m.m.a.RequestMappingHandlerMapping : Mapped to com.dilip.audit_service.controller.AuditController#deleteEvent(String)
-
-        2025-05-28T20:47:39.784Z DEBUG 98 --- [audit-service] [io-8080-exec-10] org.elasticsearch.client.RestClient      : request [POST http://elasticsearch:9200/audit-logs/_delete_by_query]⁠ returned [HTTP/1.1 400 Bad Request]
-
-        2025-05-28T20:47:39.819Z DEBUG 98 --- [audit-service] [io-8080-exec-10] o.s.web.servlet.DispatcherServlet        : Failed to complete request: org.springframework.data.elasticsearch.UncategorizedElasticsearchException: [es/delete_by_query] failed: [parsing_exception] unknown query [query]
-
-        2025-05-28T20:47:39.820Z ERROR 98 --- [audit-service] [io-8080-exec-10] o.s.b.w.servlet.support.ErrorPageFilter  : Forwarding to error page from request [/api/audit/logs/event/5463] due to exception [[es/delete_by_query] failed: [parsing_exception] unknown query [query]]
-
-
-        org.springframework.data.elasticsearch.UncategorizedElasticsearchException: [es/delete_by_query] failed: [parsing_exception] unknown query [query]
-
-
-
-
-        2025-05-28T20:49:57.691Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] o.s.security.web.FilterChainProxy        : Securing DELETE /api/audit/logs/event/12345
-
-        2025-05-28T20:49:57.693Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] o.s.s.a.dao.DaoAuthenticationProvider    : Authenticated user
-
-        2025-05-28T20:49:57.693Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] o.s.s.w.a.www.BasicAuthenticationFilter  : Set SecurityContextHolder to UsernamePasswordAuthenticationToken [Principal=com.dilip.audit_service.config.CustomUserDetails [Username=admin, Password=[PROTECTED], Enabled=true, AccountNonExpired=true, CredentialsNonExpired=true, AccountNonLocked=true, Granted Authorities=[ROLE_ADMIN]], Credentials=[PROTECTED], Authenticated=true, Details=WebAuthenticationDetails [RemoteIpAddress=192.168.65.1, SessionId=null], Granted Authorities=[ROLE_ADMIN]]
-
-        2025-05-28T20:49:57.695Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] o.s.security.web.FilterChainProxy        : Secured DELETE /api/audit/logs/event/12345
-
-        2025-05-28T20:49:57.696Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] o.s.web.servlet.DispatcherServlet        : DELETE "/audit-service/api/audit/logs/event/12345", parameters={}
-
-        2025-05-28T20:49:57.697Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] s.w.s.m.m.a.RequestMappingHandlerMapping : Mapped to com.dilip.audit_service.controller.AuditController#deleteEvent(String)
-
-        2025-05-28T20:49:57.715Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] org.elasticsearch.client.RestClient      : request [POST http://elasticsearch:9200/audit-logs/_delete_by_query]⁠ returned [HTTP/1.1 400 Bad Request]
-
-        2025-05-28T20:49:57.719Z DEBUG 98 --- [audit-service] [nio-8080-exec-4] o.s.web.servlet.DispatcherServlet        : Failed to complete request: org.springframework.data.elasticsearch.UncategorizedElasticsearchException: [es/delete_by_query] failed: [parsing_exception] unknown query [query]
-
-        2025-05-28T20:49:57.722Z ERROR 98 --- [audit-service] [nio-8080-exec-4] o.s.b.w.servlet.support.ErrorPageFilter  : Forwarding to error page from request [/api/audit/logs/event/12345] due to exception [[es/delete_by_query] failed: [parsing_exception] unknown query [query]]
-
-
-        org.springframework.data.elasticsearch.UncategorizedElasticsearchException: [es/delete_by_query] failed: [parsing_exception] unknown query [query]
-
-
-        Caused by: co.elastic.clients.elasticsearch._types.ElasticsearchException: [es/delete_by_query] failed: [parsing_exception] unknown query [query]
-
-        at co.elastic.clients.transport.ElasticsearchTransportBase.getApiResponse(ElasticsearchTransportBase.java:345) ~[elasticsearch-java-8.15.5.jar:na]
-
-        at co.elastic.clients.transport.ElasticsearchTransportBase.performRequest(ElasticsearchTransportBase.java:147) ~[elasticsearch-java-8.15.5.jar:na]
-
-        at co.elastic.clients.elasticsearch.ElasticsearchClient.deleteByQuery(ElasticsearchClient.java:617) ~[elasticsearch-java-8.15.5.jar:na]
-
-        at org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate.lambda$delete$3(ElasticsearchTemplate.java:192) ~[spring-data-elasticsearch-5.4.5.jar:5.4.5]
-
-        at org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate.execute(ElasticsearchTemplate.java:702) ~[spring-data-elasticsearch-5.4.5.jar:5.4.5]
-
-         */
+        // delete by _id in the daily index it was found in, the ownership check above already ran against it
+        elasticsearchOperations.delete(eventId, IndexCoordinates.of(event.index()));
+        eventRollups.forget(event.auditLog());
+        return new DeletionResult.DeletionSuccess(1);
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.dilip.audit_service.data.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,13 +26,15 @@ public class AuditRepositoryFactory {
     private final Map<String, AuditRepository> repositoryMap;
 
     @Autowired
-    public AuditRepositoryFactory(List<AuditRepository> auditRepositories) {
+    public AuditRepositoryFactory(List<AuditRepository> auditRepositories, MeterRegistry meterRegistry) {
         this.repositoryMap = new HashMap<>();
         for (AuditRepository auditRepo : auditRepositories) {
             Class<?> targetClass = org.springframework.aop.support.AopUtils.getTargetClass(auditRepo);
             Repository annotation = targetClass.getAnnotation(Repository.class);
             if(annotation != null && !annotation.value().isEmpty()) {
-                this.repositoryMap.put(annotation.value(), auditRepo);
+                // every caller gets the timed repository
+                this.repositoryMap.put(annotation.value(),
+                        new MeteredAuditRepository(annotation.value(), auditRepo, meterRegistry));
             }
         }
         logger.info("Loaded audit repositories: {}", repositoryMap.keySet());
@@ -0,0 +1,403 @@
+package com.dilip.audit_service.data.repository;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.config.ColdStorageSegmentConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Rolls individual audit events up into time-partitioned, gzip compressed segments.
+ * <p>
+ * Events are appended to a local NDJSON spool file per hour partition and fsync'ed once per call, so a write
+ * reported as done survives a crash. Once a spool file crosses the configured
+ * size, event count or age threshold it is sealed, re-encoded in the configured event format, compressed and
+ * uploaded as one object together with its {@link SegmentManifest}. Spool files left behind by a crash or a
+ * failed upload are picked up again on startup and by the periodic flush.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class AuditSegmentWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditSegmentWriter.class);
+    private static final String SPOOL_SUFFIX = ".ndjson";
+    private static final String SPOOL_SEPARATOR = "__";
+
+    private final AmazonS3 amazonS3;
+    private final ObjectMapper mapper;
+    private final AuditEventCodec codec;
+    private final ColdStorageSegmentConfig config;
+    private final SegmentIndex segmentIndex;
+    private final Map<String, SpoolSegment> openSegments = new ConcurrentHashMap<>();
+    // spool files still being appended to; added before the file is created, removed once it is sealed
+    private final Set<Path> openPaths = ConcurrentHashMap.newKeySet();
+    private final Set<Path> uploading = ConcurrentHashMap.newKeySet();
+
+    @Value("${db.coldStorage.bucketName}")
+    private String bucketName;
+
+    private Path spoolDirectory;
+
+    @Autowired
+    public AuditSegmentWriter(AmazonS3 amazonS3, ObjectMapper mapper, AuditEventCodec codec,
+                              ColdStorageSegmentConfig config, SegmentIndex segmentIndex) {
+        this.amazonS3 = amazonS3;
+        this.mapper = mapper;
+        this.codec = codec;
+        this.config = config;
+        this.segmentIndex = segmentIndex;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        this.spoolDirectory = Paths.get(config.getSpoolDirectory());
+        Files.createDirectories(spoolDirectory);
+        uploadOrphanedSpoolFiles();
+    }
+
+    public void append(AuditLog auditLog) {
+        appendAll(List.of(auditLog));
+    }
+
+    /**
+     * Appends the events to their partition spool files. When this method returns the events are fsync'ed to
+     * the spool, with one fsync per spool file written rather than per event; segments filled up by this call
+     * are uploaded before returning.
+     */
+    public void appendAll(List<AuditLog> auditLogs) {
+        Map<String, List<AuditLog>> byPartition = new LinkedHashMap<>();
+        for (AuditLog auditLog : auditLogs) {
+            byPartition.computeIfAbsent(ColdStorageKeyLayout.partitionOf(auditLog.getTimestamp()),
+                    partition -> new ArrayList<>()).add(auditLog);
+        }
+
+        Set<SpoolSegment> written = new LinkedHashSet<>();
+        List<SpoolSegment> sealed = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<AuditLog>> entry : byPartition.entrySet()) {
+                appendToPartition(entry.getKey(), entry.getValue(), written, sealed);
+            }
+            for (SpoolSegment segment : written) {
+                segment.sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to spool audit events", e);
+        } finally {
+            sealed.forEach(this::upload);
+        }
+    }
+
+    private void appendToPartition(String partition, List<AuditLog> auditLogs, Set<SpoolSegment> written,
+                                   List<SpoolSegment> sealed) throws IOException {
+        for (AuditLog auditLog : auditLogs) {
+            byte[] line = encode(auditLog);
+            while (true) {
+                SpoolSegment segment = openSegments.computeIfAbsent(partition, this::openSegment);
+                synchronized (segment) {
+                    if (segment.sealed) {
+                        continue; // lost the race against a flush, pick up the replacement segment
+                    }
+                    segment.write(line);
+                    written.add(segment);
+                    if (segment.bytes >= config.getMaxSegmentBytes() || segment.events >= config.getMaxSegmentEvents()) {
+                        seal(partition, segment);
+                        sealed.add(segment);
+                    }
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * Seals and uploads segments that reached the age threshold, and retries spool files whose upload failed.
+     */
+    @Scheduled(fixedDelayString = "${db.coldStorage.segment.flushCheckInterval:10s}")
+    public void flushAgedSegments() {
+        Instant cutoff = Instant.now().minus(config.getMaxSegmentAge());
+        for (Map.Entry<String, SpoolSegment> entry : openSegments.entrySet()) {
+            SpoolSegment segment = entry.getValue();
+            if (segment.createdAt.isAfter(cutoff)) {
+                continue;
+            }
+            if (trySeal(entry.getKey(), segment)) {
+                upload(segment);
+            }
+        }
+        uploadOrphanedSpoolFiles();
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        for (Map.Entry<String, SpoolSegment> entry : openSegments.entrySet()) {
+            if (trySeal(entry.getKey(), entry.getValue())) {
+                upload(entry.getValue());
+            }
+        }
+    }
+
+    private boolean trySeal(String partition, SpoolSegment segment) {
+        synchronized (segment) {
+            if (segment.sealed) {
+                return false;
+            }
+            seal(partition, segment);
+            return true;
+        }
+    }
+
+    // appenders that have not synced yet rely on the fsync here, see SpoolSegment#sync
+    private void seal(String partition, SpoolSegment segment) {
+        segment.sealed = true;
+        openSegments.remove(partition, segment);
+        try {
+            segment.channel.force(false);
+        } catch (IOException e) {
+            segment.sealFailure = e;
+            log.error("failed to fsync spool file {}", segment.path, e);
+        }
+        try {
+            segment.channel.close();
+        } catch (IOException e) {
+            log.warn("failed to close spool file {}", segment.path, e);
+        }
+        openPaths.remove(segment.path);
+    }
+
+    private SpoolSegment openSegment(String partition) {
+        String segmentId = UUID.randomUUID().toString();
+        Path path = spoolDirectory.resolve(partition.replace('/', '_') + SPOOL_SEPARATOR + segmentId + SPOOL_SUFFIX);
+        openPaths.add(path);
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            // the new directory entry must be durable too, or the fsync'ed file may be gone after a crash
+            try (FileChannel directory = FileChannel.open(spoolDirectory, StandardOpenOption.READ)) {
+                directory.force(true);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            return new SpoolSegment(path, channel);
+        } catch (IOException e) {
+            openPaths.remove(path);
+            throw new UncheckedIOException("failed to open spool file " + path, e);
+        }
+    }
+
+    /**
+     * Uploads spool files no open segment is appending to. Each file is checked when it is reached rather than
+     * against a snapshot taken before listing, so a segment opened meanwhile is never mistaken for an orphan.
+     */
+    private void uploadOrphanedSpoolFiles() {
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SPOOL_SUFFIX))
+                    .filter(path -> !openPaths.contains(path))
+                    .forEach(this::uploadSpoolFile);
+        } catch (IOException e) {
+            log.error("failed to list spool directory {}", spoolDirectory, e);
+        }
+    }
+
+    private void upload(SpoolSegment segment) {
+        uploadSpoolFile(segment.path);
+    }
+
+    /**
+     * Compresses a sealed spool file into a segment, uploads the segment and then its manifest, and removes
+     * the local files. The manifest is written last so it never points to a segment that does not exist.
+     * On failure the spool file is left in place and retried by the next flush.
+     */
+    private void uploadSpoolFile(Path spoolFile) {
+        if (!uploading.add(spoolFile)) {
+            return;
+        }
+        if (!Files.exists(spoolFile)) {
+            // uploaded by a concurrent flush between listing and now
+            uploading.remove(spoolFile);
+            return;
+        }
+        Path compressed = spoolFile.resolveSibling(spoolFile.getFileName() + ".gz");
+        try {
+            String fileName = spoolFile.getFileName().toString();
+            String[] parts = fileName.substring(0, fileName.length() - SPOOL_SUFFIX.length()).split(SPOOL_SEPARATOR);
+            String partition = parts[0].replace('_', '/');
+            String segmentId = parts[1];
+
+            SegmentManifest manifest = compress(spoolFile, compressed, partition, segmentId);
+            if (manifest.eventCount() == 0) {
+                Files.deleteIfExists(spoolFile);
+                return;
+            }
+
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentType(codec.format().contentType());
+            metadata.setContentLength(manifest.compressedBytes());
+            amazonS3.putObject(new PutObjectRequest(bucketName, manifest.segmentKey(), compressed.toFile())
+                    .withMetadata(metadata));
+            amazonS3.putObject(bucketName, ColdStorageKeyLayout.manifestKey(partition, segmentId),
+                    mapper.writeValueAsString(manifest));
+            segmentIndex.putAll(manifest.eventIds(), manifest.segmentKey());
+
+            Files.deleteIfExists(spoolFile);
+            log.debug("uploaded segment {} with {} events", manifest.segmentKey(), manifest.eventCount());
+        } catch (Exception e) {
+            log.error("failed to upload spool file {}, will retry on next flush", spoolFile, e);
+        } finally {
+            try {
+                Files.deleteIfExists(compressed);
+            } catch (IOException e) {
+                log.warn("failed to remove compressed segment {}", compressed, e);
+            }
+            uploading.remove(spoolFile);
+        }
+    }
+
+    private SegmentManifest compress(Path spoolFile, Path compressed, String partition, String segmentId)
+            throws IOException {
+        List<String> eventIds = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Instant minTimestamp = null;
+        Instant maxTimestamp = null;
+        CountingOutputStream encoded = new CountingOutputStream(new GZIPOutputStream(Files.newOutputStream(compressed)));
+
+        try (encoded;
+             BufferedReader reader = Files.newBufferedReader(spoolFile, StandardCharsets.UTF_8);
+             SequenceWriter out = codec.encoder(encoded)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                AuditLog auditLog;
+                try {
+                    auditLog = mapper.readValue(line, AuditLog.class);
+                } catch (IOException e) {
+                    // torn write from a crash mid-append, the event was never acknowledged
+                    log.warn("dropping unreadable spool line in {}", spoolFile);
+                    continue;
+                }
+                // retried within the segment's lifetime; retries landing in another segment are kept
+                if (auditLog.getEventId() != null && !seen.add(auditLog.getEventId())) {
+                    continue;
+                }
+                out.write(auditLog);
+                eventIds.add(auditLog.getEventId());
+
+                Instant timestamp = auditLog.getTimestamp();
+                if (timestamp != null) {
+                    minTimestamp = minTimestamp == null || timestamp.isBefore(minTimestamp) ? timestamp : minTimestamp;
+                    maxTimestamp = maxTimestamp == null || timestamp.isAfter(maxTimestamp) ? timestamp : maxTimestamp;
+                }
+            }
+        }
+
+        return new SegmentManifest(ColdStorageKeyLayout.segmentKey(partition, segmentId, codec.format()), partition,
+                eventIds.size(), minTimestamp, maxTimestamp, encoded.count, Files.size(compressed), eventIds);
+    }
+
+    private byte[] encode(AuditLog auditLog) throws IOException {
+        byte[] json = mapper.writeValueAsBytes(auditLog);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    // counts the encoded bytes on their way into the compressor
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private static final class SpoolSegment {
+        private final Path path;
+        private final FileChannel channel;
+        private final Instant createdAt = Instant.now();
+        private long bytes;
+        private int events;
+        private boolean sealed;
+        private volatile IOException sealFailure;
+
+        private SpoolSegment(Path path, FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+
+        private void write(byte[] line) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(line);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            bytes += line.length;
+            events++;
+        }
+
+        /**
+         * Forces what was written so far to disk. Not done under the segment's lock, so concurrent appenders keep
+         * writing while one of them syncs and several batches share an fsync. A segment sealed in the meantime
+         * was forced by {@link #seal}.
+         */
+        private void sync() throws IOException {
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                if (sealFailure != null) {
+                    throw sealFailure;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.dilip.audit_service.data.repository;
+
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import com.dilip.audit_service.common.AuditStats;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.services.UserContextService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchAggregations;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Server-side aggregations over the transient (Elasticsearch) store. The filters and the user scoping are the
+ * ones of {@code advancedSearch} ({@link AuditQueryCompiler}); only the buckets are returned, never documents.
+ * The time range is half-open, {@code [startTime, endTime)}, the same as the rollups of {@code RollupStore}.
+ */
+@Repository
+@Profile({"dev", "prod"})
+public class AuditStatsRepository {
+
+    // distinct eventType, sourceService and entityType values returned per breakdown
+    private static final int MAX_GROUPS = 100;
+    private static final String BY_EVENT_TYPE = "byEventType";
+    private static final String BY_SOURCE_SERVICE = "bySourceService";
+    private static final String BY_ENTITY_TYPE = "byEntityType";
+    private static final String HISTOGRAM = "histogram";
+    private static final String TOP_USERS = "topUsers";
+    private static final String MIN_TIMESTAMP = "minTimestamp";
+    private static final String MAX_TIMESTAMP = "maxTimestamp";
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final UserContextService userContextService;
+
+    public AuditStatsRepository(ElasticsearchOperations elasticsearchOperations,
+                                UserContextService userContextService) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.userContextService = userContextService;
+    }
+
+    /**
+     * @param interval fixed histogram interval, e.g. {@code 15m}, {@code 1h} or {@code 1d}
+     * @param topUsers number of users returned in {@link AuditStats#topUsers()}, 0 for none
+     */
+    public AuditStats stats(AuditSearchRequest request, String interval, int topUsers) {
+        UserContext user = authorize(request);
+        NativeQueryBuilder queryBuilder = NativeQuery.builder()
+                .withQuery(AuditQueryCompiler.compile(request, user, true))
+                .withMaxResults(0)
+                .withTrackTotalHits(true)
+                .withAggregation(BY_EVENT_TYPE, terms("eventType", MAX_GROUPS))
+                .withAggregation(BY_SOURCE_SERVICE, terms("sourceService", MAX_GROUPS))
+                .withAggregation(BY_ENTITY_TYPE, terms("entityType", MAX_GROUPS))
+                .withAggregation(HISTOGRAM, Aggregation.of(a -> a.dateHistogram(h -> h
+                        .field("timestamp")
+                        .fixedInterval(t -> t.time(interval)))));
+        if (topUsers > 0) {
+            queryBuilder.withAggregation(TOP_USERS, terms("changedBy.userId", topUsers));
+        }
+
+        SearchHits<AuditLog> hits = elasticsearchOperations.search(queryBuilder.build(), AuditLog.class, indices(request));
+        Map<String, Aggregate> aggregates = aggregates(hits);
+        return new AuditStats(hits.getTotalHits(),
+                counts(aggregates.get(BY_EVENT_TYPE)),
+                counts(aggregates.get(BY_SOURCE_SERVICE)),
+                counts(aggregates.get(BY_ENTITY_TYPE)),
+                histogram(aggregates.get(HISTOGRAM)),
+                counts(aggregates.get(TOP_USERS)));
+    }
+
+    /**
+     * Timestamps of the oldest and the newest event matching the request, empty when none matches. Both are
+     * inclusive: the newest event is in the range.
+     */
+    public Optional<TimeBounds> timeBounds(AuditSearchRequest request) {
+        UserContext user = authorize(request);
+        NativeQuery query = NativeQuery.builder()
+                .withQuery(AuditQueryCompiler.compile(request, user, true))
+                .withMaxResults(0)
+                .withAggregation(MIN_TIMESTAMP, Aggregation.of(a -> a.min(m -> m.field("timestamp"))))
+                .withAggregation(MAX_TIMESTAMP, Aggregation.of(a -> a.max(m -> m.field("timestamp"))))
+                .build();
+        SearchHits<AuditLog> hits = elasticsearchOperations.search(query, AuditLog.class, indices(request));
+        Map<String, Aggregate> aggregates = aggregates(hits);
+        if (hits.getTotalHits() == 0 || aggregates.get(MIN_TIMESTAMP) == null || aggregates.get(MAX_TIMESTAMP) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new TimeBounds(
+                Instant.ofEpochMilli((long) aggregates.get(MIN_TIMESTAMP).min().value()),
+                Instant.ofEpochMilli((long) aggregates.get(MAX_TIMESTAMP).max().value())));
+    }
+
+    private UserContext authorize(AuditSearchRequest request) {
+        UserContext user = userContextService.getCurrentUser().orElseThrow(() ->
+                new AccessDeniedException("failed to compute audit stats: unauthenticated request"));
+        if (request.getChangedByUserId() != null && !user.isAdmin()
+                && !Objects.equals(request.getChangedByUserId(), user.getUserId())) {
+            throw new AccessDeniedException("failed to compute audit stats: unauthorised request");
+        }
+        return user;
+    }
+
+    private static IndexCoordinates indices(AuditSearchRequest request) {
+        return IndexCoordinates.of(AuditIndexLayout.searchIndices(
+                AuditLogMatcher.parseTime(request.getStartTime()), AuditLogMatcher.parseTime(request.getEndTime())));
+    }
+
+    private static Map<String, Aggregate> aggregates(SearchHits<AuditLog> hits) {
+        Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+        if (hits.getAggregations() instanceof ElasticsearchAggregations aggregations) {
+            aggregations.aggregationsAsMap().forEach((name, aggregation) ->
+                    aggregates.put(name, aggregation.aggregation().getAggregate()));
+        }
+        return aggregates;
+    }
+
+    private static Aggregation terms(String field, int size) {
+        return Aggregation.of(a -> a.terms(t -> t.field(field).size(size)));
+    }
+
+    // bucket order of a terms aggregation is by count, largest first
+    private static Map<String, Long> counts(Aggregate aggregate) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (aggregate != null && aggregate.isSterms()) {
+            for (StringTermsBucket bucket : aggregate.sterms().buckets().array()) {
+                counts.put(bucket.key().stringValue(), bucket.docCount());
+            }
+        }
+        return counts;
+    }
+
+    private static List<AuditStats.TimeBucket> histogram(Aggregate aggregate) {
+        if (aggregate == null || !aggregate.isDateHistogram()) {
+            return List.of();
+        }
+        return aggregate.dateHistogram().buckets().array().stream()
+                .map(bucket -> new AuditStats.TimeBucket(Instant.ofEpochMilli(bucket.key()), bucket.docCount()))
+                .toList();
+    }
+
+    public record TimeBounds(Instant min, Instant max) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.dilip.audit_service.data.repository;
+
+import com.dilip.audit_service.codec.EventFormat;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Object key layout of the cold storage bucket.
+ * <pre>
+ * logs/&lt;eventId&gt;.json                                   legacy, one object per event
+ * logs/dt=2025-05-05/hour=14/&lt;segmentId&gt;.smile.gz        rolled up segment, gzip Smile event stream
+ * logs/dt=2025-05-05/hour=14/&lt;segmentId&gt;.ndjson.gz       rolled up segment, gzip NDJSON
+ * manifests/dt=2025-05-05/hour=14/&lt;segmentId&gt;.json       manifest describing the segment
+ * </pre>
+ */
+public final class ColdStorageKeyLayout {
+
+    public static final String LOGS_PREFIX = "logs/";
+    public static final String MANIFESTS_PREFIX = "manifests/";
+    public static final String COMPRESSION_SUFFIX = ".gz";
+    public static final String LEGACY_SUFFIX = ".json";
+
+    private static final DateTimeFormatter PARTITION_FORMAT =
+            DateTimeFormatter.ofPattern("'dt='yyyy-MM-dd'/hour='HH").withZone(ZoneOffset.UTC);
+
+    private ColdStorageKeyLayout() {
+    }
+
+    public static String partitionOf(Instant timestamp) {
+        return PARTITION_FORMAT.format(timestamp != null ? timestamp : Instant.now());
+    }
+
+    public static String segmentKey(String partition, String segmentId, EventFormat format) {
+        return LOGS_PREFIX + partition + "/" + segmentId + format.extension() + COMPRESSION_SUFFIX;
+    }
+
+    public static String manifestKey(String partition, String segmentId) {
+        return MANIFESTS_PREFIX + partition + "/" + segmentId + ".json";
+    }
+
+    public static String legacyEventKey(String eventId) {
+        return LOGS_PREFIX + eventId + LEGACY_SUFFIX;
+    }
+
+    public static boolean isSegmentKey(String key) {
+        return key.endsWith(COMPRESSION_SUFFIX);
+    }
+}
@@ -0,0 +1,65 @@
+package com.dilip.audit_service.data.repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns a time range into the smallest set of key prefixes of the {@link ColdStorageKeyLayout} that covers it.
+ * <p>
+ * Hours are the finest partition. Whenever a whole day, month or year lies inside the range the matching
+ * coarser prefix ({@code logs/dt=2025-05-05/}, {@code logs/dt=2025-05-}, {@code logs/dt=2025-}) is used
+ * instead of listing the hours one by one, so a one day search lists exactly one prefix.
+ */
+public final class ColdStorageQueryPlanner {
+
+    private static final DateTimeFormatter YEAR = DateTimeFormatter.ofPattern("'dt='yyyy'-'");
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("'dt='yyyy-MM'-'");
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("'dt='yyyy-MM-dd'/'");
+    private static final DateTimeFormatter HOUR = DateTimeFormatter.ofPattern("'dt='yyyy-MM-dd'/hour='HH'/'");
+
+    private ColdStorageQueryPlanner() {
+    }
+
+    /**
+     * @param start inclusive lower bound
+     * @param end   inclusive upper bound
+     * @return prefixes in chronological order, empty when the range is empty
+     */
+    public static List<String> plan(Instant start, Instant end) {
+        List<String> prefixes = new ArrayList<>();
+        if (start.isAfter(end)) {
+            return prefixes;
+        }
+
+        LocalDateTime cursor = LocalDateTime.ofInstant(start, ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime last = LocalDateTime.ofInstant(end, ZoneOffset.UTC).truncatedTo(ChronoUnit.HOURS);
+
+        while (!cursor.isAfter(last)) {
+            boolean startOfDay = cursor.getHour() == 0;
+            if (startOfDay && cursor.getDayOfYear() == 1 && covers(cursor.plusYears(1), last)) {
+                prefixes.add(ColdStorageKeyLayout.LOGS_PREFIX + YEAR.format(cursor));
+                cursor = cursor.plusYears(1);
+            } else if (startOfDay && cursor.getDayOfMonth() == 1 && covers(cursor.plusMonths(1), last)) {
+                prefixes.add(ColdStorageKeyLayout.LOGS_PREFIX + MONTH.format(cursor));
+                cursor = cursor.plusMonths(1);
+            } else if (startOfDay && covers(cursor.plusDays(1), last)) {
+                prefixes.add(ColdStorageKeyLayout.LOGS_PREFIX + DAY.format(cursor));
+                cursor = cursor.plusDays(1);
+            } else {
+                prefixes.add(ColdStorageKeyLayout.LOGS_PREFIX + HOUR.format(cursor));
+                cursor = cursor.plusHours(1);
+            }
+        }
+        return prefixes;
+    }
+
+    // true when every hour before the exclusive bound is within the range ending at the last hour
+    private static boolean covers(LocalDateTime exclusiveBound, LocalDateTime last) {
+        return !exclusiveBound.minusHours(1).isAfter(last);
+    }
+}
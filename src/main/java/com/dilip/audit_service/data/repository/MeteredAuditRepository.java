@@ -0,0 +1,120 @@
+package com.dilip.audit_service.data.repository;
+
+import com.dilip.audit_service.common.AuditSearchPage;
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.common.DeletionResult;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Times every call of the wrapped repository as {@code audit.repository}, tagged with the repository name
+ * ({@code elasticsearch}, {@code s3}), the operation and its outcome ({@code success} or the exception type).
+ * Streams are timed from opening until they are closed.
+ */
+class MeteredAuditRepository implements AuditRepository {
+
+    private static final String METRIC = "audit.repository";
+
+    private final String name;
+    private final AuditRepository delegate;
+    private final MeterRegistry meterRegistry;
+
+    MeteredAuditRepository(String name, AuditRepository delegate, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void save(AuditLog auditLog) {
+        timed("save", () -> {
+            delegate.save(auditLog);
+            return null;
+        });
+    }
+
+    @Override
+    public BulkWriteResult saveAll(List<AuditLog> auditLogs) {
+        BulkWriteResult result = timed("saveAll", () -> delegate.saveAll(auditLogs));
+        meterRegistry.counter("audit.repository.events.failed", "repository", name)
+                .increment(result.failures().size());
+        return result;
+    }
+
+    @Override
+    public List<AuditLog> findAll() {
+        return timed("findAll", delegate::findAll);
+    }
+
+    @Override
+    public List<AuditLog> findByUserId(String userId) {
+        return timed("findByUserId", () -> delegate.findByUserId(userId));
+    }
+
+    @Override
+    public Optional<AuditLog> findByEventId(String eventId) {
+        return timed("findByEventId", () -> delegate.findByEventId(eventId));
+    }
+
+    @Override
+    public BatchLookupResult findByEventIds(List<String> eventIds) {
+        return timed("findByEventIds", () -> delegate.findByEventIds(eventIds));
+    }
+
+    @Override
+    public List<AuditLog> advancedSearch(AuditSearchRequest request) {
+        return timed("advancedSearch", () -> delegate.advancedSearch(request));
+    }
+
+    @Override
+    public AuditSearchPage searchPage(AuditSearchRequest request) {
+        return timed("searchPage", () -> delegate.searchPage(request));
+    }
+
+    @Override
+    public Stream<AuditLog> streamSearch(AuditSearchRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Stream<AuditLog> stream;
+        try {
+            stream = delegate.streamSearch(request);
+        } catch (RuntimeException e) {
+            sample.stop(timer("streamSearch", e.getClass().getSimpleName()));
+            throw e;
+        }
+        return stream.onClose(() -> sample.stop(timer("streamSearch", "success")));
+    }
+
+    @Override
+    public DeletionResult deleteEvent(String eventId) {
+        return timed("deleteEvent", () -> delegate.deleteEvent(eventId));
+    }
+
+    private <T> T timed(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(timer(operation, outcome));
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder(METRIC)
+                .tag("repository", name)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
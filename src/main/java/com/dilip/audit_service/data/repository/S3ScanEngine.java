@@ -0,0 +1,351 @@
+package com.dilip.audit_service.data.repository;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams audit events out of the cold storage bucket without loading the bucket into memory.
+ * <p>
+ * Keys are listed page by page with continuation tokens, objects are downloaded and parsed by a bounded
+ * number of concurrent fetches, and every object is decoded with a streaming parser so that only events
+ * matching the filter are ever retained. Events come out in key order, and the number of objects in flight
+ * is capped, so memory stays flat no matter how many objects the scan covers. Callers must close the
+ * returned stream; closing it early (e.g. after {@code limit}) cancels the outstanding fetches.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class S3ScanEngine {
+
+    private static final int LIST_PAGE_SIZE = 1000;
+
+    private final AmazonS3 amazonS3;
+    private final AuditEventCodec codec;
+    private final ObjectMapper mapper;
+    private final ExecutorService fetchExecutor;
+    private final int parallelism;
+
+    @Value("${db.coldStorage.bucketName}")
+    private String bucketName;
+
+    @Autowired
+    public S3ScanEngine(AmazonS3 amazonS3,
+                        AuditEventCodec codec,
+                        ObjectMapper mapper,
+                        @Value("${db.coldStorage.scan.parallelism:8}") int parallelism) {
+        this.amazonS3 = amazonS3;
+        this.codec = codec;
+        this.mapper = mapper;
+        this.parallelism = parallelism;
+        this.fetchExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "s3-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Lazily lists every object under the prefix, following continuation tokens.
+     */
+    public Stream<S3ObjectSummary> listObjects(String prefix) {
+        return listObjects(List.of(prefix));
+    }
+
+    /**
+     * Lazily lists every object under each of the prefixes, one prefix after the other.
+     */
+    public Stream<S3ObjectSummary> listObjects(List<String> prefixes) {
+        Iterator<String> remaining = prefixes.iterator();
+        Iterator<S3ObjectSummary> summaries = new Iterator<>() {
+            private Iterator<S3ObjectSummary> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && remaining.hasNext()) {
+                    current = new ListingIterator(remaining.next(), null);
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public S3ObjectSummary next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(summaries, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Lists only the objects stored directly under the prefix, without descending into "sub-directories".
+     */
+    public Stream<S3ObjectSummary> listTopLevelObjects(String prefix) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                new ListingIterator(prefix, "/"), Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Returns the lexicographically first "sub-directory" of the prefix that sorts after {@code startAfter}.
+     */
+    public Optional<String> firstCommonPrefix(String prefix, String startAfter) {
+        ListObjectsV2Result result = amazonS3.listObjectsV2(new ListObjectsV2Request()
+                .withBucketName(bucketName)
+                .withPrefix(prefix)
+                .withDelimiter("/")
+                .withStartAfter(startAfter)
+                .withMaxKeys(1));
+        return result.getCommonPrefixes().stream().findFirst();
+    }
+
+    /**
+     * Streams the events stored under the prefix that match the filter.
+     */
+    public Stream<AuditLog> scan(String prefix, Predicate<AuditLog> filter) {
+        return scan(List.of(prefix), filter);
+    }
+
+    /**
+     * Streams the events stored under the prefixes that match the filter, prefix by prefix.
+     */
+    public Stream<AuditLog> scan(List<String> prefixes, Predicate<AuditLog> filter) {
+        Stream<String> keys = listObjects(prefixes)
+                .map(S3ObjectSummary::getKey)
+                .filter(S3ScanEngine::isEventObject);
+        return scanKeys(keys, filter);
+    }
+
+    public static boolean isEventObject(String key) {
+        return ColdStorageKeyLayout.isSegmentKey(key) || key.endsWith(ColdStorageKeyLayout.LEGACY_SUFFIX);
+    }
+
+    /**
+     * Streams the matching events of the given objects, in the order the keys are supplied.
+     */
+    public Stream<AuditLog> scanKeys(Stream<String> keys, Predicate<AuditLog> filter) {
+        return fetchAll(keys, key -> readObject(key, filter));
+    }
+
+    /**
+     * Streams the segment manifests stored under the given keys, fetched with the same bounded parallelism as
+     * event objects, in the order the keys are supplied.
+     */
+    public Stream<SegmentManifest> readManifests(Stream<String> keys) {
+        return fetchAll(keys, key -> List.of(readManifest(key)));
+    }
+
+    private SegmentManifest readManifest(String key) {
+        try (S3Object object = amazonS3.getObject(bucketName, key)) {
+            return mapper.readValue(object.getObjectContent(), SegmentManifest.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read manifest " + key, e);
+        }
+    }
+
+    private <T> Stream<T> fetchAll(Stream<String> keys, Function<String, List<T>> fetch) {
+        FetchIterator<T> iterator = new FetchIterator<>(keys, fetch);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * Downloads one object and parses it event by event, keeping only the events accepted by the filter.
+     */
+    public List<AuditLog> readObject(String key, Predicate<AuditLog> filter) {
+        List<AuditLog> matches = new ArrayList<>();
+        try (S3Object object = amazonS3.getObject(bucketName, key);
+             InputStream in = ColdStorageKeyLayout.isSegmentKey(key)
+                     ? new GZIPInputStream(object.getObjectContent())
+                     : object.getObjectContent();
+             MappingIterator<AuditLog> events = codec.decoder(in)) {
+            while (events.hasNextValue()) {
+                AuditLog auditLog = events.nextValue();
+                if (filter.test(auditLog)) {
+                    matches.add(auditLog);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read " + key + " from S3", e);
+        }
+        return matches;
+    }
+
+    /**
+     * Downloads the objects concurrently (bounded by the scan parallelism) and returns the matching events per
+     * key, in the order the keys were given. Objects that do not exist yield no events.
+     */
+    public Map<String, List<AuditLog>> readObjects(List<String> keys, Predicate<AuditLog> filter) {
+        Map<String, Future<List<AuditLog>>> futures = new LinkedHashMap<>();
+        for (String key : keys) {
+            futures.computeIfAbsent(key, k -> fetchExecutor.submit(() -> readObjectIfExists(k, filter)));
+        }
+        Map<String, List<AuditLog>> results = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Future<List<AuditLog>>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while reading from S3", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("failed to read from S3", e.getCause());
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    private List<AuditLog> readObjectIfExists(String key, Predicate<AuditLog> filter) {
+        try {
+            return readObject(key, filter);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == 404) {
+                return List.of();
+            }
+            throw e;
+        }
+    }
+
+    private final class ListingIterator implements Iterator<S3ObjectSummary> {
+        private final String prefix;
+        private final String delimiter;
+        private Iterator<S3ObjectSummary> page = Collections.emptyIterator();
+        private String continuationToken;
+        private boolean exhausted;
+
+        private ListingIterator(String prefix, String delimiter) {
+            this.prefix = prefix;
+            this.delimiter = delimiter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && !exhausted) {
+                ListObjectsV2Result result = amazonS3.listObjectsV2(new ListObjectsV2Request()
+                        .withBucketName(bucketName)
+                        .withPrefix(prefix)
+                        .withDelimiter(delimiter)
+                        .withMaxKeys(LIST_PAGE_SIZE)
+                        .withContinuationToken(continuationToken));
+                page = result.getObjectSummaries().iterator();
+                continuationToken = result.getNextContinuationToken();
+                exhausted = !result.isTruncated();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public S3ObjectSummary next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+    }
+
+    private final class FetchIterator<T> implements Iterator<T>, AutoCloseable {
+        private final Stream<String> keyStream;
+        private final Iterator<String> keys;
+        private final Function<String, List<T>> fetch;
+        private final Deque<Future<List<T>>> inFlight = new ArrayDeque<>();
+        private Iterator<T> current = Collections.emptyIterator();
+
+        private FetchIterator(Stream<String> keyStream, Function<String, List<T>> fetch) {
+            this.keyStream = keyStream;
+            this.keys = keyStream.iterator();
+            this.fetch = fetch;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                while (inFlight.size() < parallelism && keys.hasNext()) {
+                    String key = keys.next();
+                    inFlight.add(fetchExecutor.submit(() -> fetch.apply(key)));
+                }
+                if (inFlight.isEmpty()) {
+                    return false;
+                }
+                current = await(inFlight.poll()).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
+            keyStream.close();
+        }
+
+        private List<T> await(Future<List<T>> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("interrupted while scanning S3", e);
+            } catch (ExecutionException e) {
+                close();
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("failed to scan S3", e.getCause());
+            }
+        }
+    }
+}
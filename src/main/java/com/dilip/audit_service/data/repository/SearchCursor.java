@@ -0,0 +1,31 @@
+package com.dilip.audit_service.data.repository;
+
+import com.dilip.audit_service.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * State of a cursor paginated search: the point-in-time the pages are read from and the sort values of the
+ * last hit returned. Handed to clients as an opaque url-safe base64 token.
+ */
+record SearchCursor(String pointInTimeId, List<Object> searchAfter) {
+
+    String encode(ObjectMapper mapper) {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mapper.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to encode search cursor", e);
+        }
+    }
+
+    static SearchCursor decode(String token, ObjectMapper mapper) {
+        try {
+            return mapper.readValue(Base64.getUrlDecoder().decode(token), SearchCursor.class);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new BadRequestException("invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.dilip.audit_service.data.repository;
+
+import com.dilip.audit_service.config.ColdStorageSegmentConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Bounded map from eventId to the key of the cold storage segment holding the event, for the segments uploaded
+ * by this instance and the events found by earlier lookups. Segments are immutable, so entries never go stale;
+ * a miss only means the manifests have to be scanned.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class SegmentIndex {
+
+    private final Cache<String, String> segmentKeys;
+
+    public SegmentIndex(ColdStorageSegmentConfig config) {
+        this.segmentKeys = Caffeine.newBuilder()
+                .maximumSize(config.getIndexMaxSize())
+                .build();
+    }
+
+    public Optional<String> segmentKeyOf(String eventId) {
+        return Optional.ofNullable(segmentKeys.getIfPresent(eventId));
+    }
+
+    public void put(String eventId, String segmentKey) {
+        segmentKeys.put(eventId, segmentKey);
+    }
+
+    public void putAll(Collection<String> eventIds, String segmentKey) {
+        eventIds.forEach(eventId -> segmentKeys.put(eventId, segmentKey));
+    }
+}
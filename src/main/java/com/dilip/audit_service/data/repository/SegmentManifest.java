@@ -0,0 +1,18 @@
+package com.dilip.audit_service.data.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Small JSON document written next to every cold storage segment so readers can locate events
+ * (by id or by time) without downloading and decompressing the segment itself.
+ */
+public record SegmentManifest(String segmentKey,
+                              String partition,
+                              int eventCount,
+                              Instant minTimestamp,
+                              Instant maxTimestamp,
+                              long uncompressedBytes,
+                              long compressedBytes,
+                              List<String> eventIds) {
+}
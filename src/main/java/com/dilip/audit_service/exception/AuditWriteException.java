@@ -0,0 +1,16 @@
+package com.dilip.audit_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class AuditWriteException extends RuntimeException {
+
+    public AuditWriteException(String message) {
+        super(message);
+    }
+
+    public AuditWriteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,82 @@
+package com.dilip.audit_service.outbox;
+
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.config.OutboxConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.repository.AuditRepository;
+import com.dilip.audit_service.data.repository.AuditRepositoryFactory;
+import com.dilip.audit_service.services.AuditWritePipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retries the tier writes recorded in the {@link PendingWriteJournal}: each round takes the due entries per
+ * tier in batches, writes them to the missing tier only, marks the stored ones as done and reschedules the
+ * rest with exponential backoff.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class OutboxReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxReconciler.class);
+
+    private final PendingWriteJournal journal;
+    private final Map<String, AuditRepository> repositoriesByTier;
+    private final OutboxConfig config;
+
+    public OutboxReconciler(PendingWriteJournal journal, AuditRepositoryFactory auditRepositoryFactory,
+                            OutboxConfig config) {
+        this.journal = journal;
+        this.repositoriesByTier = Map.of(
+                AuditWritePipeline.TRANSIENT_TIER, auditRepositoryFactory.getTransientRepository(),
+                AuditWritePipeline.COLD_STORAGE_TIER, auditRepositoryFactory.getColdStorageRepository());
+        this.config = config;
+    }
+
+    @Scheduled(fixedDelayString = "${audit.outbox.reconcileInterval:30s}")
+    public void reconcile() {
+        repositoriesByTier.forEach(this::reconcileTier);
+    }
+
+    private void reconcileTier(String tier, AuditRepository repository) {
+        Instant roundStart = Instant.now();
+        List<PendingWrite> batch;
+        // entries rescheduled by this round are not due again before it ends, so the loop terminates
+        while (!(batch = journal.due(tier, roundStart, config.getBatchSize())).isEmpty()) {
+            List<AuditLog> auditLogs = batch.stream().map(PendingWrite::event).toList();
+            BulkWriteResult result;
+            try {
+                result = repository.saveAll(auditLogs);
+            } catch (RuntimeException e) {
+                Map<PendingWrite, String> failures = new LinkedHashMap<>();
+                batch.forEach(write -> failures.put(write, e.getMessage()));
+                journal.reschedule(failures);
+                log.warn("failed to reconcile {} event(s) into {}, backing off", batch.size(), tier, e);
+                return;
+            }
+
+            List<PendingWrite> stored = new ArrayList<>();
+            Map<PendingWrite, String> failures = new LinkedHashMap<>();
+            for (PendingWrite write : batch) {
+                String failure = result.failures().get(write.event().getEventId());
+                if (failure == null) {
+                    stored.add(write);
+                } else {
+                    failures.put(write, failure);
+                }
+            }
+            journal.complete(stored);
+            journal.reschedule(failures);
+            log.info("reconciled {} event(s) into {}, {} still failing", stored.size(), tier, failures.size());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.dilip.audit_service.outbox;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+
+import java.time.Instant;
+
+/**
+ * An event stored in one tier but still missing from {@code tier}, with its retry state.
+ */
+public record PendingWrite(String tier, AuditLog event, Instant since, int attempts, Instant nextAttemptAt,
+                           String lastError) {
+
+    public static PendingWrite of(AuditLog event, String tier, String reason) {
+        Instant now = Instant.now();
+        return new PendingWrite(tier, event, now, 0, now, reason);
+    }
+
+    String key() {
+        return key(tier, event.getEventId());
+    }
+
+    static String key(String tier, String eventId) {
+        return tier + "/" + eventId;
+    }
+}
@@ -0,0 +1,336 @@
+package com.dilip.audit_service.outbox;
+
+import com.dilip.audit_service.common.DivergenceReport;
+import com.dilip.audit_service.config.OutboxConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Durable journal of the tier writes still owed after a partial failure, i.e. events that reached one storage
+ * tier but not the other.
+ * <p>
+ * The journal is an append-only NDJSON file of {@code put} and {@code done} entries, fsync'ed on every change
+ * and replayed on startup. Once most of its lines are obsolete it is compacted by rewriting the outstanding
+ * entries to a new file that atomically replaces the old one.
+ * <p>
+ * Pending writes are indexed per tier by their next attempt, so taking the due ones costs the size of the batch
+ * rather than of the backlog. Only the first {@code maxResidentWrites} events are kept on the heap; the others
+ * are read back from their {@code put} line in the journal when they are due, so a long outage grows the file,
+ * not the heap.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class PendingWriteJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingWriteJournal.class);
+    private static final String JOURNAL_FILE = "pending-writes.ndjson";
+    private static final int MIN_LINES_BEFORE_COMPACTION = 1000;
+    private static final Comparator<Slot> BY_NEXT_ATTEMPT =
+            Comparator.comparing(Slot::nextAttemptAt).thenComparing(Slot::key);
+
+    private final OutboxConfig config;
+    private final ObjectMapper mapper;
+    private final Map<String, Slot> pending = new HashMap<>();
+    private final Map<String, NavigableSet<Slot>> scheduleByTier = new HashMap<>();
+
+    private Path journalFile;
+    private FileChannel channel;
+    private long lines;
+    private int residentWrites;
+
+    public PendingWriteJournal(OutboxConfig config, ObjectMapper mapper) {
+        this.config = config;
+        this.mapper = mapper;
+    }
+
+    @PostConstruct
+    synchronized void open() throws IOException {
+        Path directory = Paths.get(config.getDirectory());
+        Files.createDirectories(directory);
+        journalFile = directory.resolve(JOURNAL_FILE);
+
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        replay();
+        compact();
+        if (!pending.isEmpty()) {
+            log.warn("{} tier write(s) left to reconcile from the previous run", pending.size());
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Records the tier writes still owed. Returns once the entries are on disk.
+     */
+    public synchronized void record(List<PendingWrite> writes) {
+        List<Location> locations = append(writes.stream().map(JournalEntry::put).toList());
+        for (int i = 0; i < writes.size(); i++) {
+            put(writes.get(i), locations.get(i));
+        }
+    }
+
+    /**
+     * Pending writes of the tier whose next attempt is due, earliest due first.
+     */
+    public synchronized List<PendingWrite> due(String tier, Instant now, int limit) {
+        List<PendingWrite> due = new ArrayList<>();
+        for (Slot slot : scheduleByTier.getOrDefault(tier, Collections.emptyNavigableSet())) {
+            if (due.size() >= limit || slot.nextAttemptAt().isAfter(now)) {
+                break;
+            }
+            due.add(load(slot));
+        }
+        return due;
+    }
+
+    public synchronized void complete(List<PendingWrite> writes) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        append(writes.stream().map(JournalEntry::done).toList());
+        writes.forEach(write -> remove(write.key()));
+        if (lines >= MIN_LINES_BEFORE_COMPACTION && lines > 4L * pending.size()) {
+            try {
+                compact();
+            } catch (IOException e) {
+                log.warn("failed to compact pending write journal {}", journalFile, e);
+            }
+        }
+    }
+
+    /**
+     * Schedules the next attempt of each write with exponential backoff.
+     */
+    public synchronized void reschedule(Map<PendingWrite, String> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<PendingWrite> updated = new ArrayList<>(failures.size());
+        failures.forEach((write, reason) -> updated.add(new PendingWrite(write.tier(), write.event(), write.since(),
+                write.attempts() + 1, now.plus(backoff(write.attempts() + 1)), reason)));
+        List<Location> locations = append(updated.stream().map(JournalEntry::put).toList());
+        for (int i = 0; i < updated.size(); i++) {
+            put(updated.get(i), locations.get(i));
+        }
+    }
+
+    public synchronized DivergenceReport report() {
+        Map<String, Long> byTier = new TreeMap<>();
+        scheduleByTier.forEach((tier, slots) -> {
+            if (!slots.isEmpty()) {
+                byTier.put(tier, (long) slots.size());
+            }
+        });
+        Instant oldestSince = pending.values().stream()
+                .map(Slot::since)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+        return new DivergenceReport(pending.size(), byTier, oldestSince);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration maxBackoff = config.getMaxBackoff();
+        Duration delay = config.getInitialBackoff();
+        for (int i = 1; i < attempts && delay.compareTo(maxBackoff) < 0; i++) {
+            delay = delay.multipliedBy(2);
+        }
+        return delay.compareTo(maxBackoff) < 0 ? delay : maxBackoff;
+    }
+
+    private void put(PendingWrite write, Location location) {
+        remove(write.key());
+        boolean resident = residentWrites < config.getMaxResidentWrites();
+        if (resident) {
+            residentWrites++;
+        }
+        Slot slot = new Slot(write.key(), write.tier(), write.since(), write.nextAttemptAt(), location,
+                resident ? write : null);
+        pending.put(slot.key(), slot);
+        scheduleByTier.computeIfAbsent(slot.tier(), tier -> new TreeSet<>(BY_NEXT_ATTEMPT)).add(slot);
+    }
+
+    private void remove(String key) {
+        Slot slot = pending.remove(key);
+        if (slot == null) {
+            return;
+        }
+        scheduleByTier.get(slot.tier()).remove(slot);
+        if (slot.write() != null) {
+            residentWrites--;
+        }
+    }
+
+    // the write as recorded, read back from its put line unless it is resident
+    private PendingWrite load(Slot slot) {
+        if (slot.write() != null) {
+            return slot.write();
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(slot.location().length());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, slot.location().offset() + buffer.position()) < 0) {
+                    throw new IOException("journal ends before the entry of " + slot.key());
+                }
+            }
+            return mapper.readValue(buffer.array(), JournalEntry.class).write();
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to read pending write " + slot.key() + " from " + journalFile, e);
+        }
+    }
+
+    // streams the journal line by line, remembering where each line starts
+    private void replay() throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(journalFile))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long offset = 0;
+            long lineStart = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                if (line.size() > 0) {
+                    replay(line.toByteArray(), new Location(lineStart, line.size()));
+                }
+                line.reset();
+                lineStart = offset;
+            }
+            // a last line without newline is a torn append, its caller was never told it was recorded
+            if (line.size() > 0) {
+                log.warn("ignoring torn pending write journal line at offset {}", lineStart);
+            }
+        }
+    }
+
+    private void replay(byte[] line, Location location) {
+        JournalEntry entry;
+        try {
+            entry = mapper.readValue(line, JournalEntry.class);
+        } catch (IOException e) {
+            // torn write from a crash mid-append, the caller was never told the entry was recorded
+            log.warn("ignoring unreadable pending write journal line at offset {}", location.offset());
+            return;
+        }
+        if (entry == null) {
+            return;
+        }
+        if (JournalEntry.PUT.equals(entry.op())) {
+            put(entry.write(), location);
+        } else {
+            remove(PendingWrite.key(entry.tier(), entry.eventId()));
+        }
+    }
+
+    private List<Location> append(List<JournalEntry> entries) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            List<Location> locations = new ArrayList<>(entries.size());
+            long position = channel.position();
+            for (JournalEntry entry : entries) {
+                byte[] json = mapper.writeValueAsBytes(entry);
+                locations.add(new Location(position + out.size(), json.length));
+                out.write(json);
+                out.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+            lines += entries.size();
+            return locations;
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write pending write journal " + journalFile, e);
+        }
+    }
+
+    // rewrites the journal with the outstanding entries only, keeping which events are resident
+    private void compact() throws IOException {
+        Path tmp = journalFile.resolveSibling(JOURNAL_FILE + ".tmp");
+        List<Slot> moved = new ArrayList<>(pending.size());
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            for (Slot slot : pending.values()) {
+                byte[] json = mapper.writeValueAsBytes(JournalEntry.put(load(slot)));
+                ByteBuffer buffer = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                moved.add(new Slot(slot.key(), slot.tier(), slot.since(), slot.nextAttemptAt(),
+                        new Location(position, json.length), slot.write()));
+                position += json.length + 1;
+            }
+            out.force(true);
+        }
+        channel.close();
+        Files.move(tmp, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+
+        pending.clear();
+        scheduleByTier.clear();
+        for (Slot slot : moved) {
+            pending.put(slot.key(), slot);
+            scheduleByTier.computeIfAbsent(slot.tier(), tier -> new TreeSet<>(BY_NEXT_ATTEMPT)).add(slot);
+        }
+        lines = pending.size();
+    }
+
+    private record Location(long offset, int length) {
+    }
+
+    // a pending write as indexed; write is null when the event is not resident and has to be loaded
+    private record Slot(String key, String tier, Instant since, Instant nextAttemptAt, Location location,
+                        PendingWrite write) {
+    }
+
+    record JournalEntry(String op, String tier, String eventId, PendingWrite write) {
+        static final String PUT = "put";
+        static final String DONE = "done";
+
+        static JournalEntry put(PendingWrite write) {
+            return new JournalEntry(PUT, write.tier(), write.event().getEventId(), write);
+        }
+
+        static JournalEntry done(PendingWrite write) {
+            return new JournalEntry(DONE, write.tier(), write.event().getEventId(), null);
+        }
+    }
+}
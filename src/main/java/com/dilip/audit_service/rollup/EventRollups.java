@@ -0,0 +1,144 @@
+package com.dilip.audit_service.rollup;
+
+import com.dilip.audit_service.config.RollupConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-minute and per-hour event counts by (sourceService, eventType, entityType), maintained at ingest time.
+ * <p>
+ * Events created in Elasticsearch are counted up, deleted events are counted down. A change locks only the map
+ * entry of its counter, for the time of an addition, so concurrent ingest contends on events of the same key
+ * only. Counters are never reset: every flush adds what was counted since the last successful flush to the
+ * {@link RollupStore}, so changes racing with a flush are carried over to the next one. Counters that did not
+ * change for a whole flush interval are dropped under the same entry lock, so no change lands on a dropped
+ * counter. Rollups expire with the raw events, see {@link RollupConfig#retentionOf}. Counts not yet flushed are
+ * lost if the process dies.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class EventRollups {
+
+    private static final Logger log = LoggerFactory.getLogger(EventRollups.class);
+
+    private final Map<RollupKey, Counter> counters = new ConcurrentHashMap<>();
+    private final RollupStore rollupStore;
+    private final RollupConfig config;
+
+    public EventRollups(RollupStore rollupStore, RollupConfig config) {
+        this.rollupStore = rollupStore;
+        this.config = config;
+    }
+
+    // the event was created in Elasticsearch
+    public void record(AuditLog auditLog) {
+        count(auditLog, 1);
+    }
+
+    // the event was deleted from Elasticsearch
+    public void forget(AuditLog auditLog) {
+        count(auditLog, -1);
+    }
+
+    private void count(AuditLog auditLog, long change) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant timestamp = auditLog.getTimestamp() != null ? auditLog.getTimestamp() : now;
+        for (RollupResolution resolution : RollupResolution.values()) {
+            Instant bucket = resolution.bucketOf(timestamp);
+            // expired buckets are purged, a late change would bring them back
+            if (bucket.isBefore(now.minus(config.retentionOf(resolution)))) {
+                continue;
+            }
+            RollupKey key = new RollupKey(resolution, bucket,
+                    auditLog.getSourceService(), auditLog.getEventType(), auditLog.getEntityType());
+            // under the entry's lock, so flush cannot drop the counter between looking it up and counting
+            counters.compute(key, (k, counter) -> {
+                Counter counted = counter != null ? counter : new Counter();
+                counted.count.addAndGet(change);
+                return counted;
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.rollup.flushInterval:10s}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Map<RollupKey, Long> deltas = new HashMap<>();
+        List<RollupKey> idle = new ArrayList<>();
+        counters.forEach((key, counter) -> {
+            long delta = counter.count.get() - counter.flushed;
+            if (delta != 0) {
+                deltas.put(key, delta);
+            } else {
+                idle.add(key);
+            }
+        });
+        for (RollupKey key : idle) {
+            // atomically with the check, so a counter that changed since the scan is kept
+            counters.compute(key, (k, counter) ->
+                    counter == null || counter.count.get() == counter.flushed ? null : counter);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Set<RollupKey> failed;
+        try {
+            failed = rollupStore.add(deltas);
+        } catch (RuntimeException e) {
+            log.warn("failed to flush {} rollup counters, retrying with the next flush", deltas.size(), e);
+            return;
+        }
+        deltas.forEach((key, delta) -> {
+            Counter counter = counters.get(key);
+            if (counter != null && !failed.contains(key)) {
+                counter.flushed += delta;
+            }
+        });
+        if (!failed.isEmpty()) {
+            log.warn("failed to flush {} of {} rollup counters, retrying with the next flush",
+                    failed.size(), deltas.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT1M")
+    public void purgeExpiredRollups() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        for (RollupResolution resolution : RollupResolution.values()) {
+            try {
+                rollupStore.deleteBefore(resolution, Instant.now().minus(config.retentionOf(resolution)));
+            } catch (IOException | RuntimeException e) {
+                log.warn("failed to delete expired per-{} rollups", resolution.value(), e);
+            }
+        }
+    }
+
+    private static final class Counter {
+        private final AtomicLong count = new AtomicLong();
+        // only read and written by flush, which is synchronized
+        private long flushed;
+    }
+}
@@ -0,0 +1,24 @@
+package com.dilip.audit_service.rollup;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * One rollup counter: the events of a (sourceService, eventType, entityType) combination whose timestamp falls
+ * into the bucket starting at {@code bucket}. Dimensions are null for events that do not carry them.
+ */
+public record RollupKey(RollupResolution resolution, Instant bucket, String sourceService, String eventType,
+                        String entityType) {
+
+    // document _id in the rollup index, the same on every instance so their counts add up in one document
+    String documentId() {
+        return String.join("|", resolution.value(), String.valueOf(bucket.toEpochMilli()),
+                idPart(sourceService), idPart(eventType), idPart(entityType));
+    }
+
+    // escaped so values containing '|' cannot collide, prefixed so that null and "" differ
+    private static String idPart(String value) {
+        return value == null ? "" : "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,37 @@
+package com.dilip.audit_service.rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket width of a rollup counter. Buckets are aligned to the UTC minute or hour they start at.
+ */
+public enum RollupResolution {
+
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS);
+
+    private final ChronoUnit unit;
+
+    RollupResolution(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Instant bucketOf(Instant timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    public boolean isAligned(Instant timestamp) {
+        return timestamp == null || bucketOf(timestamp).equals(timestamp);
+    }
+
+    public Duration duration() {
+        return unit.getDuration();
+    }
+
+    // value of the resolution field in the rollup index
+    public String value() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,202 @@
+package com.dilip.audit_service.rollup;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregation;
+import co.elastic.clients.elasticsearch._types.aggregations.StringTermsBucket;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.util.NamedValue;
+import com.dilip.audit_service.common.AuditStats;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.repository.AuditIndexLayout;
+import com.dilip.audit_service.data.repository.AuditLogMatcher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.document.Document;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.ScriptType;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Rollup counters in the {@code audit-rollups} index, one small document per {@link RollupKey} holding its
+ * count. Flushes add to the stored count with a scripted upsert, so every instance can flush its own counters
+ * into the same documents; stats are sums over these documents instead of counts over raw events.
+ */
+@Repository
+@Profile({"dev", "prod"})
+public class RollupStore {
+
+    // deletes count down, never below zero (events ingested before rollups were enabled were never counted)
+    private static final String ADD_COUNT = "ctx._source.count = Math.max(0, ctx._source.count + params.count)";
+    // concurrent flushes of several instances touch the same documents
+    private static final int RETRY_ON_CONFLICT = 5;
+    private static final int MAX_GROUPS = 100;
+    private static final String COUNT = "count";
+
+    private final ElasticsearchOperations elasticsearchOperations;
+    private final ElasticsearchClient elasticsearchClient;
+
+    public RollupStore(ElasticsearchOperations elasticsearchOperations, ElasticsearchClient elasticsearchClient) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+    }
+
+    /**
+     * Adds the deltas to the stored counts with one bulk request. Returns the keys whose update failed, their
+     * deltas were not applied; throws if the request failed as a whole.
+     */
+    public Set<RollupKey> add(Map<RollupKey, Long> deltas) {
+        Map<String, RollupKey> keys = new HashMap<>();
+        List<UpdateQuery> updates = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            String id = key.documentId();
+            keys.put(id, key);
+
+            Document upsert = Document.create();
+            upsert.put("resolution", key.resolution().value());
+            upsert.put("bucket", key.bucket().toString());
+            upsert.put("sourceService", key.sourceService());
+            upsert.put("eventType", key.eventType());
+            upsert.put("entityType", key.entityType());
+            upsert.put(COUNT, Math.max(0, delta));
+            updates.add(UpdateQuery.builder(id)
+                    .withScript(ADD_COUNT)
+                    .withScriptType(ScriptType.INLINE)
+                    .withLang("painless")
+                    .withParams(Map.of(COUNT, delta))
+                    .withUpsert(upsert)
+                    .withRetryOnConflict(RETRY_ON_CONFLICT)
+                    .build());
+        });
+
+        try {
+            elasticsearchOperations.bulkUpdate(updates, IndexCoordinates.of(AuditIndexLayout.ROLLUPS));
+            return Set.of();
+        } catch (BulkFailureException e) {
+            return e.getFailedDocuments().keySet().stream()
+                    .map(keys::get)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    public void deleteBefore(RollupResolution resolution, Instant before) throws IOException {
+        Query query = filters(List.of(
+                term("resolution", resolution.value()),
+                Query.of(q -> q.range(r -> r.date(d -> d.field("bucket").lt(before.toString()))))));
+        elasticsearchClient.deleteByQuery(request -> request
+                .index(AuditIndexLayout.ROLLUPS)
+                .query(query));
+    }
+
+    /**
+     * Stats from the rollups of {@code resolution}. Only the rollup dimensions and the time range of the
+     * request are applied; both time bounds must be aligned to the resolution and the end is exclusive.
+     * Rollups carry no user, so {@link AuditStats#topUsers()} is empty.
+     */
+    public AuditStats stats(AuditSearchRequest request, String interval, RollupResolution resolution)
+            throws IOException {
+        List<Query> filters = new ArrayList<>();
+        filters.add(term("resolution", resolution.value()));
+        if (request.getSourceService() != null) {
+            filters.add(term("sourceService", request.getSourceService()));
+        }
+        if (request.getEventType() != null) {
+            filters.add(term("eventType", request.getEventType()));
+        }
+        if (request.getEntityType() != null) {
+            filters.add(term("entityType", request.getEntityType()));
+        }
+        Instant startTime = AuditLogMatcher.parseTime(request.getStartTime());
+        Instant endTime = AuditLogMatcher.parseTime(request.getEndTime());
+        if (startTime != null || endTime != null) {
+            filters.add(Query.of(q -> q.range(r -> r.date(range -> {
+                range.field("bucket");
+                if (startTime != null) {
+                    range.gte(startTime.toString());
+                }
+                if (endTime != null) {
+                    range.lt(endTime.toString());
+                }
+                return range;
+            }))));
+        }
+
+        Map<String, Aggregation> aggregations = new LinkedHashMap<>();
+        aggregations.put("total", sumOfCounts());
+        aggregations.put("byEventType", termsBySum("eventType"));
+        aggregations.put("bySourceService", termsBySum("sourceService"));
+        aggregations.put("byEntityType", termsBySum("entityType"));
+        aggregations.put("histogram", Aggregation.of(a -> a
+                .dateHistogram(h -> h.field("bucket").fixedInterval(t -> t.time(interval)))
+                .aggregations(COUNT, sumOfCounts())));
+
+        SearchResponse<Void> response = elasticsearchClient.search(search -> search
+                .index(AuditIndexLayout.ROLLUPS)
+                .size(0)
+                .query(filters(filters))
+                .aggregations(aggregations), Void.class);
+
+        Map<String, Aggregate> aggregates = response.aggregations();
+        return new AuditStats((long) aggregates.get("total").sum().value(),
+                counts(aggregates.get("byEventType")),
+                counts(aggregates.get("bySourceService")),
+                counts(aggregates.get("byEntityType")),
+                histogram(aggregates.get("histogram")),
+                Map.of());
+    }
+
+    private static Query filters(List<Query> filters) {
+        return Query.of(q -> q.bool(b -> b.filter(filters)));
+    }
+
+    private static Query term(String field, String value) {
+        return Query.of(q -> q.term(t -> t.field(field).value(value)));
+    }
+
+    private static Aggregation sumOfCounts() {
+        return Aggregation.of(a -> a.sum(s -> s.field(COUNT)));
+    }
+
+    // largest first by number of events, not by number of rollup documents
+    private static Aggregation termsBySum(String field) {
+        return Aggregation.of(a -> a
+                .terms(t -> t.field(field).size(MAX_GROUPS).order(List.of(NamedValue.of(COUNT, SortOrder.Desc))))
+                .aggregations(COUNT, sumOfCounts()));
+    }
+
+    private static Map<String, Long> counts(Aggregate aggregate) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        if (aggregate != null && aggregate.isSterms()) {
+            for (StringTermsBucket bucket : aggregate.sterms().buckets().array()) {
+                counts.put(bucket.key().stringValue(), (long) bucket.aggregations().get(COUNT).sum().value());
+            }
+        }
+        return counts;
+    }
+
+    private static List<AuditStats.TimeBucket> histogram(Aggregate aggregate) {
+        if (aggregate == null || !aggregate.isDateHistogram()) {
+            return List.of();
+        }
+        return aggregate.dateHistogram().buckets().array().stream()
+                .map(bucket -> new AuditStats.TimeBucket(Instant.ofEpochMilli(bucket.key()),
+                        (long) bucket.aggregations().get(COUNT).sum().value()))
+                .toList();
+    }
+}
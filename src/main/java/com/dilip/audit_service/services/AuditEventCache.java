@@ -0,0 +1,66 @@
+package com.dilip.audit_service.services;
+
+import com.dilip.audit_service.config.AuditCacheConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Bounded, size and ttl evicted cache of audit events keyed by eventId. It is filled on read and on write and
+ * holds the event as stored, authorization is left to the caller. Hit, miss and eviction counters are
+ * published as the {@code cache.*} meters tagged {@code cache=audit-events}.
+ * <p>
+ * Deleted events leave a tombstone for one ttl, so a lookup that read the event just before it was deleted
+ * cannot put it back. Other nodes only drop a deleted event when its entry expires.
+ */
+@Component
+public class AuditEventCache {
+
+    private final Cache<String, AuditLog> cache;
+    private final Cache<String, Boolean> deleted;
+    private final boolean enabled;
+
+    public AuditEventCache(AuditCacheConfig config, MeterRegistry meterRegistry) {
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        this.deleted = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "audit-events");
+    }
+
+    public Optional<AuditLog> get(String eventId) {
+        return enabled ? Optional.ofNullable(cache.getIfPresent(eventId)) : Optional.empty();
+    }
+
+    public void put(AuditLog auditLog) {
+        if (enabled && auditLog.getEventId() != null) {
+            // atomic with the removal in markDeleted: either the tombstone is seen here or the entry is removed
+            cache.asMap().compute(auditLog.getEventId(),
+                    (eventId, cached) -> deleted.getIfPresent(eventId) != null ? null : auditLog);
+        }
+    }
+
+    /**
+     * Drops the event and keeps it out of the cache for one ttl.
+     */
+    public void markDeleted(String eventId) {
+        deleted.put(eventId, Boolean.TRUE);
+        cache.invalidate(eventId);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -1,27 +1,100 @@
 package com.dilip.audit_service.services;
 
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.config.KafkaConfig;
 import com.dilip.audit_service.data.entity.AuditLog;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.dilip.audit_service.exception.TooManyRequestsException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 public class AuditEventListener {
+    private static final Logger log = LoggerFactory.getLogger(AuditEventListener.class);
+    static final String LISTENER_ID = "audit-events-listener";
+
     private final AuditService auditService;
-    private final ObjectMapper objectMapper;
+    private final AuditEventCodec codec;
+    private final KafkaIngestThrottle kafkaIngestThrottle;
+    private final IngestMetrics ingestMetrics;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
 
-    public AuditEventListener(AuditService auditService, ObjectMapper objectMapper) {
+    public AuditEventListener(AuditService auditService, AuditEventCodec codec,
+                              KafkaIngestThrottle kafkaIngestThrottle, IngestMetrics ingestMetrics,
+                              DeadLetterPublishingRecoverer deadLetterRecoverer) {
         this.auditService = auditService;
-        this.objectMapper = objectMapper;
+        this.codec = codec;
+        this.kafkaIngestThrottle = kafkaIngestThrottle;
+        this.ingestMetrics = ingestMetrics;
+        this.deadLetterRecoverer = deadLetterRecoverer;
     }
 
-    @KafkaListener(topics = "audit-events", groupId = "audit-service")
-    public void handleAuditEvent(String message) {
+    /**
+     * Consumes one poll worth of records (bounded by spring.kafka.consumer.max-poll-records) and writes it
+     * with a single bulk request per storage. Offsets are committed by the container only after this method
+     * returns (ack-mode=batch), so throwing here redelivers the whole batch instead of losing events.
+     * While the storages are saturated the listener is paused until the ingest limiter recovers.
+     * <p>
+     * Values are consumed as raw bytes and parsed straight from them, without an intermediate String; both JSON
+     * and Smile encoded events are accepted.
+     */
+    @KafkaListener(id = LISTENER_ID, topics = KafkaConfig.AUDIT_EVENTS_TOPIC, groupId = "audit-service",
+            batch = "true",
+            properties = "value.deserializer=org.apache.kafka.common.serialization.ByteArrayDeserializer")
+    public void handleAuditEvents(List<ConsumerRecord<String, byte[]>> records) {
+        ingestMetrics.batch(IngestMetrics.KAFKA, records.size());
+        List<AuditLog> auditLogs = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, byte[]> record : records) {
+            try {
+                auditLogs.add(parse(record.value()));
+            } catch (Exception e) {
+                // a malformed message can never succeed, park it instead of blocking the rest of the partition;
+                // if the dead-letter topic cannot be written the batch fails and is redelivered
+                log.warn("sending undeserializable audit event at {}-{}@{} to {}",
+                        record.topic(), record.partition(), record.offset(), KafkaConfig.AUDIT_EVENTS_DLT, e);
+                deadLetterRecoverer.accept(record, e);
+                ingestMetrics.deserializationFailure(IngestMetrics.KAFKA);
+            }
+        }
+        if (auditLogs.isEmpty()) {
+            return;
+        }
+
+        BulkWriteResult result;
         try {
-            AuditLog auditLog = objectMapper.readValue(message, AuditLog.class);
-            auditService.saveAuditLog(auditLog);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            result = auditService.saveAuditLogs(auditLogs);
+        } catch (TooManyRequestsException e) {
+            kafkaIngestThrottle.pause();
+            throw e;
+        }
+        ingestMetrics.stored(IngestMetrics.KAFKA, result.succeeded());
+        if (result.hasFailures()) {
+            ingestMetrics.failed(IngestMetrics.KAFKA, result.failures().size());
+            throw new IllegalStateException("failed to persist %d of %d audit events: %s"
+                    .formatted(result.failures().size(), result.attempted(), result.failures().keySet()));
+        }
+    }
+
+    private AuditLog parse(byte[] value) throws IOException {
+        if (value == null) {
+            throw new IllegalArgumentException("record has no value");
+        }
+        AuditLog auditLog = codec.decode(value);
+        if (auditLog == null) {
+            throw new IllegalArgumentException("record value is JSON null");
+        }
+        if (auditLog.getTimestamp() == null) {
+            // it picks the daily index, a redelivery stamped with another day would be stored twice
+            throw new IllegalArgumentException("audit event has no timestamp");
         }
+        return auditLog;
     }
 }
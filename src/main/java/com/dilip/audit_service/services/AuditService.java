@@ -1,44 +1,209 @@
 package com.dilip.audit_service.services;
 
+import com.dilip.audit_service.common.AuditSearchPage;
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.BulkWriteResult;
 import com.dilip.audit_service.common.DeletionResult;
+import com.dilip.audit_service.common.WriteOutcome;
+import com.dilip.audit_service.config.IngestLimiterConfig;
 import com.dilip.audit_service.data.entity.AuditLog;
 import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
 import com.dilip.audit_service.data.repository.AuditRepository;
 import com.dilip.audit_service.data.repository.AuditRepositoryFactory;
+import com.dilip.audit_service.exception.AuditWriteException;
+import com.dilip.audit_service.exception.TooManyRequestsException;
+import com.dilip.audit_service.wal.WalAuditWriter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @Service
 @Profile({"dev", "prod"})
 public class AuditService {
 
     private final AuditRepository auditRepositoryTransientDb;
-    private final AuditRepository auditRepositoryColdStorageDb;
+    private final AuditEventCache auditEventCache;
+    private final UserContextService userContextService;
+    private final TieredQueryRouter tieredQueryRouter;
+    private final AuditWritePipeline auditWritePipeline;
+    private final Optional<WalAuditWriter> walAuditWriter;
+    private final IngestConcurrencyLimiter ingestLimiter;
+    private final Duration retryAfter;
 
     @Autowired
-    public AuditService(AuditRepositoryFactory auditRepositoryFactory) {
+    public AuditService(AuditRepositoryFactory auditRepositoryFactory,
+                        AuditEventCache auditEventCache,
+                        UserContextService userContextService,
+                        TieredQueryRouter tieredQueryRouter,
+                        AuditWritePipeline auditWritePipeline,
+                        Optional<WalAuditWriter> walAuditWriter,
+                        IngestConcurrencyLimiter ingestLimiter,
+                        IngestLimiterConfig ingestLimiterConfig) {
         this.auditRepositoryTransientDb = auditRepositoryFactory.getTransientRepository();
-        this.auditRepositoryColdStorageDb = auditRepositoryFactory.getColdStorageRepository();
+        this.auditEventCache = auditEventCache;
+        this.userContextService = userContextService;
+        this.tieredQueryRouter = tieredQueryRouter;
+        this.auditWritePipeline = auditWritePipeline;
+        this.walAuditWriter = walAuditWriter;
+        this.ingestLimiter = ingestLimiter;
+        this.retryAfter = ingestLimiterConfig.getRetryAfter();
     }
 
+    /**
+     * Writes the event to both storages and waits for both. An event that reached one storage only is journaled
+     * and completed by the reconciler; if it reached none the write fails with {@link AuditWriteException}.
+     * Retries are at-least-once: Elasticsearch only creates an eventId once and keeps the first write, but cold
+     * storage appends, so an event that already reached S3 is stored there again by a retry or redelivery.
+     * With the write-ahead log enabled the event is durable, and acknowledged, once it is in the local log,
+     * the storages are written in the background. Without it, the write is rejected with
+     * {@link TooManyRequestsException} while the storages are saturated.
+     */
     public void saveAuditLog(AuditLog auditLog) {
-        //TODO: it should save to both the storages otherwise to none. write test case around it.
-        this.auditRepositoryTransientDb.save(auditLog);
-        this.auditRepositoryColdStorageDb.save(auditLog);
+        if (this.walAuditWriter.isPresent()) {
+            try {
+                this.walAuditWriter.get().write(auditLog).join();
+            } catch (RuntimeException e) {
+                throw new AuditWriteException("failed to append audit event %s to the write-ahead log"
+                        .formatted(auditLog.getEventId()), e);
+            }
+            stored(auditLog);
+            return;
+        }
+        WriteOutcome outcome = saveAuditLogAsync(auditLog).join();
+        if (!outcome.isDurable()) {
+            throw new AuditWriteException("failed to persist audit event %s: %s"
+                    .formatted(outcome.eventId(), outcome.failedTiers().values()));
+        }
+    }
+
+    /**
+     * Writes the event to both storages concurrently. The future completes once both tiers answered or timed
+     * out and never completes exceptionally; the outcome names the tiers the event did not reach.
+     * Throws {@link TooManyRequestsException} right away while the storages are saturated.
+     */
+    public CompletableFuture<WriteOutcome> saveAuditLogAsync(AuditLog auditLog) {
+        long start = acquireIngestSlot();
+        CompletableFuture<WriteOutcome> write;
+        try {
+            write = this.auditWritePipeline.write(auditLog);
+        } catch (RuntimeException e) {
+            this.ingestLimiter.release(start, true);
+            throw e;
+        }
+        return write.whenComplete((outcome, error) -> this.ingestLimiter.release(start,
+                        error != null || !outcome.isDurable() || !outcome.deferredTiers().isEmpty()))
+                .thenApply(outcome -> {
+                    if (outcome.isDurable()) {
+                        stored(auditLog);
+                    }
+                    return outcome;
+                });
+    }
+
+    /**
+     * Writes a batch of events with one bulk call per storage, both storages concurrently. The returned result
+     * lists every event that did not reach both storages, so callers can decide whether the batch may be
+     * acknowledged. Throws {@link TooManyRequestsException} right away while the storages are saturated.
+     */
+    public BulkWriteResult saveAuditLogs(List<AuditLog> auditLogs) {
+        long start = acquireIngestSlot();
+        BulkWriteResult result;
+        boolean failed = true;
+        try {
+            result = this.auditWritePipeline.writeAll(auditLogs).join();
+            failed = result.hasFailures();
+        } finally {
+            // released on every path, a leaked slot would shrink the limit for good
+            this.ingestLimiter.release(start, failed);
+        }
+        auditLogs.stream()
+                .filter(auditLog -> !result.failures().containsKey(auditLog.getEventId()))
+                .forEach(this::stored);
+        return result;
+    }
+
+    // the event is durable: cache it
+    private void stored(AuditLog auditLog) {
+        this.auditEventCache.put(auditLog);
+    }
+
+    // returns the start time to release the slot with
+    private long acquireIngestSlot() {
+        if (!this.ingestLimiter.tryAcquire()) {
+            throw new TooManyRequestsException("audit storage is saturated, retry later", this.retryAfter);
+        }
+        return System.nanoTime();
     }
 
     public List<AuditLog> queryAuditLogs() {
         return this.auditRepositoryTransientDb.findAll();
     }
 
+    /**
+     * Read-through lookup. Events are immutable once written, so a cached entry is served as is, but the
+     * same visibility rule as the repository (admin or owner) is applied to it on every read.
+     */
     public Optional<AuditLog> findByEventId(String eventId) {
-        return this.auditRepositoryTransientDb.findByEventId(eventId);
+        Optional<AuditLog> cached = this.auditEventCache.get(eventId);
+        if (cached.isPresent()) {
+            return cached.filter(this::isVisibleToCurrentUser);
+        }
+
+        Optional<AuditLog> auditLog = this.auditRepositoryTransientDb.findByEventId(eventId);
+        auditLog.ifPresent(this.auditEventCache::put);
+        return auditLog;
+    }
+
+    /**
+     * Looks many events up at once. Cached events are served from the cache, the rest is fetched from the
+     * transient repository with one batch call. Results keep the request order, unknown or invisible ids are
+     * reported as missing.
+     */
+    public BatchLookupResult findByEventIds(List<String> eventIds) {
+        Map<String, AuditLog> resolved = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String eventId : eventIds) {
+            this.auditEventCache.get(eventId).ifPresentOrElse(
+                    auditLog -> resolved.put(eventId, auditLog),
+                    () -> uncached.add(eventId));
+        }
+        if (!uncached.isEmpty()) {
+            for (AuditLog auditLog : this.auditRepositoryTransientDb.findByEventIds(uncached).found()) {
+                resolved.put(auditLog.getEventId(), auditLog);
+                this.auditEventCache.put(auditLog);
+            }
+        }
+
+        List<AuditLog> found = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String eventId : eventIds) {
+            AuditLog auditLog = resolved.get(eventId);
+            if (auditLog != null && isVisibleToCurrentUser(auditLog)) {
+                found.add(auditLog);
+            } else {
+                missing.add(eventId);
+            }
+        }
+        return new BatchLookupResult(found, missing);
+    }
+
+    private boolean isVisibleToCurrentUser(AuditLog auditLog) {
+        UserContext user = userContextService.getCurrentUser().orElseThrow(() ->
+                new AccessDeniedException("failed to find audit log: unauthenticated request"));
+        return user.canAccess(auditLog);
     }
 
     public List<AuditLog> findByUserId(String userId) {
@@ -46,42 +211,27 @@ public class AuditService {
     }
 
     public List<AuditLog> advancedSearch(AuditSearchRequest request) {
-        // Implement Elasticsearch or DB query logic
-        return this.auditRepositoryTransientDb.advancedSearch(request);
+        // hot (transient) and/or cold storage, depending on the time range of the request
+        return this.tieredQueryRouter.search(request);
     }
 
-    public DeletionResult deleteEvent(String eventId) {
-        return this.auditRepositoryTransientDb.deleteEvent(eventId);
+    public AuditSearchPage advancedSearchPage(AuditSearchRequest request) {
+        return this.auditRepositoryTransientDb.searchPage(request);
     }
-}
-
 
-/*
-    public Optional<AuditLog> findById(String eventId) {
-        Optional<AuditLog> log = transientRepository.findById(eventId);
-        if (log.isPresent()) {
-            return log;
-        }
-        return coldStorageRepository != null ? coldStorageRepository.findById(eventId) : Optional.empty();
+    /**
+     * Streams every matching event for export. Authorization runs when the stream is opened, so call this on
+     * the request thread; the caller must close the stream.
+     */
+    public Stream<AuditLog> exportAuditLogs(AuditSearchRequest request) {
+        return this.tieredQueryRouter.stream(request);
     }
 
-    public List<AuditLog> advancedSearch(AuditSearchRequest request) {
-        List<AuditLog> transientResults = transientRepository.advancedSearch(request);
-        List<AuditLog> coldResults = coldStorageRepository != null ? coldStorageRepository.advancedSearch(request) : List.of();
-
-        Instant threshold = Instant.now().minus(Duration.ofDays(14));
-
-        List<AuditLog> finalResults = new ArrayList<>();
-        for (AuditLog log : transientResults) {
-            if (log.getTimestamp() != null && log.getTimestamp().isAfter(threshold)) {
-                finalResults.add(log);
-            }
-        }
-        for (AuditLog log : coldResults) {
-            if (log.getTimestamp() != null && log.getTimestamp().isBefore(threshold)) {
-                finalResults.add(log);
-            }
+    public DeletionResult deleteEvent(String eventId) {
+        try {
+            return this.auditRepositoryTransientDb.deleteEvent(eventId);
+        } finally {
+            this.auditEventCache.markDeleted(eventId);
         }
-        return finalResults;
     }
-*/
\ No newline at end of file
+}
@@ -0,0 +1,159 @@
+package com.dilip.audit_service.services;
+
+import com.dilip.audit_service.common.AuditStats;
+import com.dilip.audit_service.config.RollupConfig;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.data.repository.AuditLogMatcher;
+import com.dilip.audit_service.data.repository.AuditStatsRepository;
+import com.dilip.audit_service.exception.BadRequestException;
+import com.dilip.audit_service.rollup.RollupResolution;
+import com.dilip.audit_service.rollup.RollupStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Event counts and histograms for dashboards, aggregated by the transient store instead of paging raw events
+ * to the client. Only the hot tier is covered, like unbounded searches.
+ * <p>
+ * Requests the ingest-time rollups can answer are served from them, which costs the same whatever the number
+ * of events: an admin request without top users, filtering on sourceService, eventType and entityType only,
+ * with time bounds and interval in whole hours (or whole minutes, within the per-minute retention). Everything
+ * else, and any failure of the rollup query, falls back to aggregating the raw events.
+ * <p>
+ * The histogram is capped at {@value #MAX_HISTOGRAM_BUCKETS} buckets, well below Elasticsearch's
+ * {@code search.max_buckets}: longer ranges need a coarser interval. Unbounded sides of the range are closed
+ * with the oldest or newest matching event.
+ * <p>
+ * Both paths count over the half-open range {@code [startTime, endTime)}: an event at {@code endTime} belongs
+ * to the next range, as it does to the next rollup bucket.
+ */
+@Service
+@Profile({"dev", "prod"})
+public class AuditStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditStatsService.class);
+    private static final Pattern INTERVAL = Pattern.compile("[1-9][0-9]{0,5}[smhd]");
+    private static final int MAX_TOP_USERS = 100;
+    static final long MAX_HISTOGRAM_BUCKETS = 1000;
+
+    private final AuditStatsRepository auditStatsRepository;
+    private final RollupStore rollupStore;
+    private final UserContextService userContextService;
+    private final RollupConfig rollupConfig;
+
+    public AuditStatsService(AuditStatsRepository auditStatsRepository,
+                             RollupStore rollupStore,
+                             UserContextService userContextService,
+                             RollupConfig rollupConfig) {
+        this.auditStatsRepository = auditStatsRepository;
+        this.rollupStore = rollupStore;
+        this.userContextService = userContextService;
+        this.rollupConfig = rollupConfig;
+    }
+
+    /**
+     * @param topUsers number of users with the most events to return, 0 to skip them
+     */
+    public AuditStats stats(AuditSearchRequest request, String interval, int topUsers) {
+        if (!INTERVAL.matcher(interval).matches()) {
+            throw new BadRequestException("invalid histogram interval, expected e.g. 15m, 1h or 1d: " + interval);
+        }
+        if (topUsers < 0 || topUsers > MAX_TOP_USERS) {
+            throw new BadRequestException("topUsers must be between 0 and %d".formatted(MAX_TOP_USERS));
+        }
+
+        Duration step = parseInterval(interval);
+        checkHistogramBuckets(request, interval, step);
+
+        Optional<RollupResolution> resolution = rollupResolution(request, step, topUsers);
+        if (resolution.isPresent()) {
+            try {
+                return this.rollupStore.stats(request, interval, resolution.get());
+            } catch (IOException | RuntimeException e) {
+                log.warn("rollup stats query failed, aggregating raw events instead", e);
+            }
+        }
+        return this.auditStatsRepository.stats(request, interval, topUsers);
+    }
+
+    private void checkHistogramBuckets(AuditSearchRequest request, String interval, Duration step) {
+        Instant startTime = AuditLogMatcher.parseTime(request.getStartTime());
+        Instant endTime = AuditLogMatcher.parseTime(request.getEndTime());
+        // the last instant in the range: the end is exclusive, the newest event is not
+        Instant last = endTime != null ? endTime.minusMillis(1) : null;
+        if (startTime == null || last == null) {
+            Optional<AuditStatsRepository.TimeBounds> bounds = this.auditStatsRepository.timeBounds(request);
+            if (bounds.isEmpty()) {
+                return; // nothing matches, the histogram is empty
+            }
+            startTime = startTime != null ? startTime : bounds.get().min();
+            last = last != null ? last : bounds.get().max();
+        }
+        if (last.isBefore(startTime)) {
+            return;
+        }
+        // histogram buckets are aligned to the epoch, not to the start of the range
+        long buckets = Math.floorDiv(last.toEpochMilli(), step.toMillis())
+                - Math.floorDiv(startTime.toEpochMilli(), step.toMillis()) + 1;
+        if (buckets > MAX_HISTOGRAM_BUCKETS) {
+            throw new BadRequestException(("interval %s over [%s, %s] gives %d histogram buckets, at most %d: "
+                    + "use a longer interval or a shorter range")
+                    .formatted(interval, startTime, endTime, buckets, MAX_HISTOGRAM_BUCKETS));
+        }
+    }
+
+    private Optional<RollupResolution> rollupResolution(AuditSearchRequest request, Duration interval, int topUsers) {
+        if (!this.rollupConfig.isEnabled() || topUsers > 0) {
+            return Optional.empty();
+        }
+        // rollups have no user, entity or role dimension: only unscoped requests on their dimensions qualify
+        boolean admin = this.userContextService.getCurrentUser().map(UserContext::isAdmin).orElse(false);
+        if (!admin || request.getEventId() != null || request.getEntityId() != null
+                || request.getChangedByUserId() != null
+                || (request.getRoles() != null && !request.getRoles().isEmpty())) {
+            return Optional.empty();
+        }
+
+        // the range must still be held by both the rollups and the raw events, so that both answers agree. The
+        // lifecycle policy deletes a whole daily index at once, up to a day before its last events reach the delete
+        // age (hourRetention); raw events younger than hourRetention minus a day are always there.
+        Instant startTime = AuditLogMatcher.parseTime(request.getStartTime());
+        Instant endTime = AuditLogMatcher.parseTime(request.getEndTime());
+        Instant now = Instant.now();
+        if (startTime == null
+                || !startTime.isAfter(now.minus(this.rollupConfig.getHourRetention()).plus(Duration.ofDays(1)))) {
+            return Optional.empty();
+        }
+        for (RollupResolution resolution : List.of(RollupResolution.HOUR, RollupResolution.MINUTE)) {
+            boolean aligned = interval.toMillis() % resolution.duration().toMillis() == 0
+                    && resolution.isAligned(startTime) && resolution.isAligned(endTime);
+            boolean retained = startTime.isAfter(now.minus(this.rollupConfig.retentionOf(resolution)));
+            if (aligned && retained) {
+                return Optional.of(resolution);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Duration parseInterval(String interval) {
+        long amount = Long.parseLong(interval.substring(0, interval.length() - 1));
+        ChronoUnit unit = switch (interval.charAt(interval.length() - 1)) {
+            case 's' -> ChronoUnit.SECONDS;
+            case 'm' -> ChronoUnit.MINUTES;
+            case 'h' -> ChronoUnit.HOURS;
+            default -> ChronoUnit.DAYS;
+        };
+        return Duration.of(amount, unit);
+    }
+}
@@ -0,0 +1,231 @@
+package com.dilip.audit_service.services;
+
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.common.WriteOutcome;
+import com.dilip.audit_service.config.WritePipelineConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.repository.AuditRepository;
+import com.dilip.audit_service.data.repository.AuditRepositoryFactory;
+import com.dilip.audit_service.outbox.PendingWrite;
+import com.dilip.audit_service.outbox.PendingWriteJournal;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes audit events to the transient and the cold storage tier concurrently.
+ * <p>
+ * Both tiers are written on a dedicated executor (virtual threads when the runtime has them), so a write takes
+ * as long as the slower tier instead of the sum of both. Each tier has its own timeout and never fails the
+ * other tier's write. A timed out write is not cancelled and may still land.
+ * <p>
+ * When an event reaches one tier only, the missing tier is recorded in the {@link PendingWriteJournal} for the
+ * reconciler to retry and the write counts as done; it is counted as {@code audit.write.partial}. An event that
+ * reached no tier, or whose missing tier could not be journaled, is reported as failed to the caller.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class AuditWritePipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWritePipeline.class);
+    public static final String TRANSIENT_TIER = "elasticsearch";
+    public static final String COLD_STORAGE_TIER = "s3";
+
+    private final AuditRepository transientRepository;
+    private final AuditRepository coldStorageRepository;
+    private final WritePipelineConfig config;
+    private final MeterRegistry meterRegistry;
+    private final PendingWriteJournal pendingWriteJournal;
+    private final ExecutorService executor;
+
+    public AuditWritePipeline(AuditRepositoryFactory auditRepositoryFactory,
+                              WritePipelineConfig config,
+                              MeterRegistry meterRegistry,
+                              PendingWriteJournal pendingWriteJournal) {
+        this.transientRepository = auditRepositoryFactory.getTransientRepository();
+        this.coldStorageRepository = auditRepositoryFactory.getColdStorageRepository();
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.pendingWriteJournal = pendingWriteJournal;
+        this.executor = newExecutor(config.getParallelism());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(config.getColdStorageTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes one event to both tiers. The future always completes normally, failures are in the outcome.
+     */
+    public CompletableFuture<WriteOutcome> write(AuditLog auditLog) {
+        CompletableFuture<String> transientWrite = runOnTier(TRANSIENT_TIER, config.getTransientTimeout(),
+                () -> transientRepository.save(auditLog));
+        CompletableFuture<String> coldStorageWrite = runOnTier(COLD_STORAGE_TIER, config.getColdStorageTimeout(),
+                () -> coldStorageRepository.save(auditLog));
+
+        // journaling fsyncs, combine on the executor rather than on whichever thread completed last (the JDK
+        // timeout scheduler when a tier timed out)
+        return transientWrite.thenCombineAsync(coldStorageWrite, (transientError, coldStorageError) -> {
+            Map<String, String> failedTiers = new LinkedHashMap<>();
+            if (transientError != null) {
+                failedTiers.put(TRANSIENT_TIER, transientError);
+            }
+            if (coldStorageError != null) {
+                failedTiers.put(COLD_STORAGE_TIER, coldStorageError);
+            }
+            Set<String> deferredTiers = deferPartialWrites(List.of(auditLog), List.of(failedTiers)).get(0);
+            failedTiers.keySet().removeAll(deferredTiers);
+            return new WriteOutcome(auditLog.getEventId(), failedTiers, deferredTiers);
+        }, executor);
+    }
+
+    /**
+     * Writes a batch to both tiers with one bulk call each. A tier that fails or times out as a whole marks
+     * every event of the batch as failed; the future always completes normally.
+     */
+    public CompletableFuture<BulkWriteResult> writeAll(List<AuditLog> auditLogs) {
+        CompletableFuture<BulkWriteResult> transientWrite = saveAllOnTier(TRANSIENT_TIER,
+                config.getTransientTimeout(), transientRepository, auditLogs);
+        CompletableFuture<BulkWriteResult> coldStorageWrite = saveAllOnTier(COLD_STORAGE_TIER,
+                config.getColdStorageTimeout(), coldStorageRepository, auditLogs);
+
+        return transientWrite.thenCombineAsync(coldStorageWrite, (transientResult, coldStorageResult) -> {
+            List<Map<String, String>> failedTiersPerEvent = new ArrayList<>(auditLogs.size());
+            for (AuditLog auditLog : auditLogs) {
+                String eventId = auditLog.getEventId();
+                Map<String, String> failedTiers = new LinkedHashMap<>();
+                if (transientResult.failures().containsKey(eventId)) {
+                    failedTiers.put(TRANSIENT_TIER, transientResult.failures().get(eventId));
+                }
+                if (coldStorageResult.failures().containsKey(eventId)) {
+                    failedTiers.put(COLD_STORAGE_TIER, coldStorageResult.failures().get(eventId));
+                }
+                failedTiersPerEvent.add(failedTiers);
+            }
+            List<Set<String>> deferredTiersPerEvent = deferPartialWrites(auditLogs, failedTiersPerEvent);
+
+            Map<String, String> failures = new LinkedHashMap<>();
+            for (int i = 0; i < auditLogs.size(); i++) {
+                Map<String, String> failedTiers = failedTiersPerEvent.get(i);
+                failedTiers.keySet().removeAll(deferredTiersPerEvent.get(i));
+                if (!failedTiers.isEmpty()) {
+                    failures.put(auditLogs.get(i).getEventId(), String.join("; ", failedTiers.values()));
+                }
+            }
+            return failures.isEmpty()
+                    ? BulkWriteResult.success(auditLogs.size())
+                    : new BulkWriteResult(auditLogs.size(), failures);
+        }, executor);
+    }
+
+    // completes with null on success and with the failure reason otherwise, never exceptionally
+    private CompletableFuture<String> runOnTier(String tier, Duration timeout, Runnable write) {
+        return CompletableFuture.runAsync(write, executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((ignored, error) -> error == null ? null : describe(tier, timeout, error));
+    }
+
+    private CompletableFuture<BulkWriteResult> saveAllOnTier(String tier, Duration timeout,
+                                                             AuditRepository repository, List<AuditLog> auditLogs) {
+        return CompletableFuture.supplyAsync(() -> repository.saveAll(auditLogs), executor)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        return result;
+                    }
+                    String reason = describe(tier, timeout, error);
+                    Map<String, String> failures = new LinkedHashMap<>();
+                    auditLogs.forEach(auditLog -> failures.put(auditLog.getEventId(), reason));
+                    return new BulkWriteResult(auditLogs.size(), failures);
+                });
+    }
+
+    /**
+     * Journals the missing tier of every event that reached exactly one tier, with a single journal write.
+     * Returns the journaled tier of each event, index-aligned with {@code auditLogs} like
+     * {@code failedTiersPerEvent}; every set is empty when the journal write fails.
+     */
+    private List<Set<String>> deferPartialWrites(List<AuditLog> auditLogs,
+                                                 List<Map<String, String>> failedTiersPerEvent) {
+        List<PendingWrite> partialWrites = new ArrayList<>();
+        List<Set<String>> deferredTiersPerEvent = new ArrayList<>(auditLogs.size());
+        for (int i = 0; i < auditLogs.size(); i++) {
+            Map<String, String> failedTiers = failedTiersPerEvent.get(i);
+            if (failedTiers.size() == 1) {
+                Map.Entry<String, String> missing = failedTiers.entrySet().iterator().next();
+                partialWrites.add(PendingWrite.of(auditLogs.get(i), missing.getKey(), missing.getValue()));
+                deferredTiersPerEvent.add(Set.of(missing.getKey()));
+            } else {
+                if (!failedTiers.isEmpty()) {
+                    log.error("audit event {} was not written to any tier: {}",
+                            auditLogs.get(i).getEventId(), failedTiers);
+                }
+                deferredTiersPerEvent.add(Set.of());
+            }
+        }
+        if (partialWrites.isEmpty()) {
+            return deferredTiersPerEvent;
+        }
+
+        try {
+            pendingWriteJournal.record(partialWrites);
+        } catch (RuntimeException e) {
+            log.error("{} audit event(s) are missing from one tier and could not be journaled",
+                    partialWrites.size(), e);
+            return Collections.nCopies(auditLogs.size(), Set.of());
+        }
+        for (PendingWrite partialWrite : partialWrites) {
+            meterRegistry.counter("audit.write.partial", "tier", partialWrite.tier()).increment();
+            log.warn("audit event {} is missing from {}, journaled for reconciliation: {}",
+                    partialWrite.event().getEventId(), partialWrite.tier(), partialWrite.lastError());
+        }
+        return deferredTiersPerEvent;
+    }
+
+    private static String describe(String tier, Duration timeout, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof TimeoutException) {
+            return "%s write timed out after %s".formatted(tier, timeout);
+        }
+        return "%s write failed: %s".formatted(tier, cause.getMessage());
+    }
+
+    /**
+     * Uses a virtual thread per task on Java 21+, looked up reflectively as the service still targets Java 17,
+     * and a bounded pool of platform threads otherwise.
+     */
+    private static ExecutorService newExecutor(int parallelism) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "audit-write-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.dilip.audit_service.services;
+
+import com.dilip.audit_service.config.IngestLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adaptive (AIMD) limit on the number of concurrent ingest writes to the storage tiers.
+ * <p>
+ * Every write that finishes within the latency threshold while the limit is in use raises the limit by one,
+ * every slow or failed write shrinks it by the backoff ratio, so the limit settles around the concurrency the
+ * stores sustain at the target latency. Writes over the limit are rejected right away instead of queueing up
+ * behind the slow store. The current limit, the writes in flight and the rejections are published as
+ * {@code audit.ingest.limit}, {@code audit.ingest.inflight} and {@code audit.ingest.rejected}.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class IngestConcurrencyLimiter {
+
+    private final IngestLimiterConfig config;
+    private final long latencyThresholdNanos;
+    private final Counter rejected;
+    private double limit;
+    private int inFlight;
+
+    public IngestConcurrencyLimiter(IngestLimiterConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.latencyThresholdNanos = config.getLatencyThreshold().toNanos();
+        this.limit = config.getInitialLimit();
+        this.rejected = meterRegistry.counter("audit.ingest.rejected");
+        Gauge.builder("audit.ingest.limit", this, IngestConcurrencyLimiter::getLimit).register(meterRegistry);
+        Gauge.builder("audit.ingest.inflight", this, IngestConcurrencyLimiter::getInFlight).register(meterRegistry);
+    }
+
+    /**
+     * Takes a slot for one write; every successful call must be followed by {@link #release}.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected.increment();
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Frees the slot and adapts the limit to how the write went.
+     */
+    public synchronized void release(long startNanos, boolean failed) {
+        boolean limitInUse = inFlight * 2 >= limit;
+        inFlight--;
+        if (failed || System.nanoTime() - startNanos > latencyThresholdNanos) {
+            limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+        } else if (limitInUse) {
+            limit = Math.min(config.getMaxLimit(), limit + 1);
+        }
+    }
+
+    public synchronized boolean hasCapacity() {
+        return inFlight < (int) limit;
+    }
+
+    public synchronized double getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,44 @@
+package com.dilip.audit_service.services;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ingest counters per source ({@code kafka}, {@code rest}): events stored and failed
+ * ({@code audit.ingest.events}), batch sizes ({@code audit.ingest.batch.size}) and messages that could not be
+ * read as an audit event ({@code audit.ingest.deserialization.failures}). Consumer lag is published by the
+ * Kafka client metrics ({@code kafka.consumer.fetch.manager.records.lag}).
+ */
+@Component
+public class IngestMetrics {
+
+    public static final String KAFKA = "kafka";
+    public static final String REST = "rest";
+
+    private final MeterRegistry meterRegistry;
+
+    public IngestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void stored(String source, int events) {
+        meterRegistry.counter("audit.ingest.events", "source", source, "outcome", "stored").increment(events);
+    }
+
+    public void failed(String source, int events) {
+        meterRegistry.counter("audit.ingest.events", "source", source, "outcome", "failed").increment(events);
+    }
+
+    public void batch(String source, int events) {
+        DistributionSummary.builder("audit.ingest.batch.size")
+                .baseUnit("events")
+                .tag("source", source)
+                .register(meterRegistry)
+                .record(events);
+    }
+
+    public void deserializationFailure(String source) {
+        meterRegistry.counter("audit.ingest.deserialization.failures", "source", source).increment();
+    }
+}
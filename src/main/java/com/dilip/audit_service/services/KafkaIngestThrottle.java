@@ -0,0 +1,60 @@
+package com.dilip.audit_service.services;
+
+import com.dilip.audit_service.config.IngestLimiterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Pauses the audit event listener while the ingest limiter rejects writes and resumes it once the limiter has
+ * capacity again, after at least {@code retryAfter}. While paused the consumer keeps polling (and stays in the
+ * group) but fetches nothing, so a slow store is not hammered with redeliveries.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class KafkaIngestThrottle {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaIngestThrottle.class);
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final IngestConcurrencyLimiter ingestLimiter;
+    private final IngestLimiterConfig config;
+    private volatile Instant pausedAt;
+
+    public KafkaIngestThrottle(KafkaListenerEndpointRegistry registry,
+                               IngestConcurrencyLimiter ingestLimiter,
+                               IngestLimiterConfig config) {
+        this.registry = registry;
+        this.ingestLimiter = ingestLimiter;
+        this.config = config;
+    }
+
+    public void pause() {
+        MessageListenerContainer container = registry.getListenerContainer(AuditEventListener.LISTENER_ID);
+        if (container != null && !container.isPauseRequested()) {
+            pausedAt = Instant.now();
+            container.pause();
+            log.warn("audit storage saturated (limit {}), pausing consumption of audit events",
+                    (int) ingestLimiter.getLimit());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.ingest.limiter.resumeCheckInterval:200ms}")
+    public void resumeIfRecovered() {
+        MessageListenerContainer container = registry.getListenerContainer(AuditEventListener.LISTENER_ID);
+        if (container == null || !container.isPauseRequested()) {
+            return;
+        }
+        boolean waitedLongEnough = pausedAt == null || Instant.now().isAfter(pausedAt.plus(config.getRetryAfter()));
+        if (waitedLongEnough && ingestLimiter.hasCapacity()) {
+            container.resume();
+            log.info("resuming consumption of audit events");
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.dilip.audit_service.services;
+
+import com.dilip.audit_service.config.TieringConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.data.repository.AuditLogMatcher;
+import com.dilip.audit_service.data.repository.AuditRepository;
+import com.dilip.audit_service.data.repository.AuditRepositoryFactory;
+import com.dilip.audit_service.exception.BadRequestException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Routes searches to the storage tiers their time range overlaps.
+ * <p>
+ * Events younger than {@code audit.tiering.hotRetention} are served by the transient store, older ones by
+ * cold storage. A range entirely on one side of the threshold touches one tier only; a range spanning it is
+ * split at the threshold, both tiers are queried in parallel and their results are merge-sorted by timestamp
+ * before the requested page is cut, so paging is correct across tiers. Cold storage returns events in key
+ * order, so its results are always sorted here; that is why searches reaching it can only sort by timestamp.
+ * Pages end within the first {@link #MAX_RESULT_WINDOW} events, like Elasticsearch's default
+ * {@code index.max_result_window}; deeper results are for cursor pagination or the export.
+ */
+@Component
+@Profile({"dev", "prod"})
+public class TieredQueryRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredQueryRouter.class);
+    private static final Comparator<AuditLog> TIMESTAMP_ORDER = Comparator
+            .comparing(AuditLog::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(AuditLog::getEventId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    static final int MAX_RESULT_WINDOW = 10_000;
+
+    private final AuditRepository hotRepository;
+    private final AuditRepository coldRepository;
+    private final UserContextService userContextService;
+    private final TieringConfig config;
+    private final ExecutorService executor;
+
+    public TieredQueryRouter(AuditRepositoryFactory auditRepositoryFactory,
+                             UserContextService userContextService,
+                             TieringConfig config) {
+        this.hotRepository = auditRepositoryFactory.getTransientRepository();
+        this.coldRepository = auditRepositoryFactory.getColdStorageRepository();
+        this.userContextService = userContextService;
+        this.config = config;
+        // the transient repository authorizes against the caller's security context, carry it to the workers
+        this.executor = new DelegatingSecurityContextExecutorService(
+                Executors.newFixedThreadPool(config.getQueryParallelism()));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public List<AuditLog> search(AuditSearchRequest request) {
+        long window = ((long) request.getPage() + 1) * request.getSize();
+        if (request.getPage() < 0 || request.getSize() < 1 || window > MAX_RESULT_WINDOW) {
+            throw new BadRequestException(("page %d of size %d is beyond the first %d results: narrow the time "
+                    + "range or use cursor pagination or the export").formatted(
+                    request.getPage(), request.getSize(), MAX_RESULT_WINDOW));
+        }
+        TierPlan plan = plan(request);
+        if (plan.cold() == null) {
+            return hotRepository.advancedSearch(plan.hot());
+        }
+        boolean ascending = isAscendingTimestampSort(request.getSort());
+        Comparator<AuditLog> order = ascending ? TIMESTAMP_ORDER : TIMESTAMP_ORDER.reversed();
+        if (plan.hot() == null) {
+            return page(topN(plan.cold(), (int) window, order), request);
+        }
+
+        // both tiers: fetch the first (page + 1) * size events of each in timestamp order, merge, cut the page
+        AuditSearchRequest hot = plan.hot();
+        hot.setPage(0);
+        hot.setSize((int) window);
+        hot.setSort(ascending ? "timestamp,asc" : "timestamp,desc");
+
+        CompletableFuture<List<AuditLog>> hotResults =
+                CompletableFuture.supplyAsync(() -> hotRepository.advancedSearch(hot), executor);
+        CompletableFuture<List<AuditLog>> coldResults =
+                CompletableFuture.supplyAsync(() -> topN(plan.cold(), (int) window, order), executor);
+
+        try {
+            return page(merge(hotResults.join(), coldResults.join(), order), request);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    // newest first unless "timestamp" or "timestamp,asc" is requested, as for the hot tier
+    private static boolean isAscendingTimestampSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return false;
+        }
+        String[] parts = sort.replace(" ", "").split(",");
+        if (!parts[0].equals("timestamp") || parts.length > 2
+                || (parts.length == 2 && !parts[1].equalsIgnoreCase("asc") && !parts[1].equalsIgnoreCase("desc"))) {
+            throw new BadRequestException("searches reaching cold storage can only be sorted by timestamp: " + sort);
+        }
+        return parts.length == 1 || parts[1].equalsIgnoreCase("asc");
+    }
+
+    private static List<AuditLog> page(List<AuditLog> sorted, AuditSearchRequest request) {
+        return sorted.stream()
+                .skip((long) request.getPage() * request.getSize())
+                .limit(request.getSize())
+                .toList();
+    }
+
+    /**
+     * Streams every matching event for export, hot tier first. The caller must close the stream.
+     */
+    public Stream<AuditLog> stream(AuditSearchRequest request) {
+        TierPlan plan = plan(request);
+        if (plan.cold() == null) {
+            return hotRepository.streamSearch(plan.hot());
+        }
+        if (plan.hot() == null) {
+            return coldRepository.streamSearch(plan.cold());
+        }
+        return Stream.concat(hotRepository.streamSearch(plan.hot()), coldRepository.streamSearch(plan.cold()));
+    }
+
+    /**
+     * Splits the request at the hot retention threshold. A null side means the tier is not queried.
+     */
+    private TierPlan plan(AuditSearchRequest request) {
+        Instant threshold = Instant.now().minus(config.getHotRetention());
+        Instant startTime = AuditLogMatcher.parseTime(request.getStartTime());
+        Instant endTime = AuditLogMatcher.parseTime(request.getEndTime());
+
+        boolean hot = endTime == null || !endTime.isBefore(threshold);
+        boolean cold = startTime != null
+                ? startTime.isBefore(threshold)
+                : (endTime != null && endTime.isBefore(threshold)) || config.isIncludeColdWhenUnbounded();
+
+        AuditSearchRequest hotRequest = null;
+        if (hot) {
+            hotRequest = copyOf(request);
+            if (cold) {
+                hotRequest.setStartTime(threshold.toString());
+            }
+        }
+        AuditSearchRequest coldRequest = null;
+        if (cold) {
+            coldRequest = scopeToCurrentUser(copyOf(request));
+            if (hot) {
+                coldRequest.setEndTime(threshold.minusMillis(1).toString());
+            }
+        }
+        log.debug("search [{}, {}] routed to hot={} cold={}", startTime, endTime, hot, cold);
+        return new TierPlan(hotRequest, coldRequest);
+    }
+
+    /**
+     * Cold storage has no access control of its own, apply the same rule as the transient repository:
+     * non-admins may only search their own events.
+     */
+    private AuditSearchRequest scopeToCurrentUser(AuditSearchRequest request) {
+        UserContext user = userContextService.getCurrentUser().orElseThrow(() ->
+                new AccessDeniedException("failed to perform advanced search: unauthenticated request"));
+        if (user.isAdmin()) {
+            return request;
+        }
+        if (request.getChangedByUserId() != null && !Objects.equals(request.getChangedByUserId(), user.getUserId())) {
+            throw new AccessDeniedException("failed to perform advanced search: unauthorised request");
+        }
+        request.setChangedByUserId(user.getUserId());
+        return request;
+    }
+
+    // keeps only the first n events in the given order while streaming, memory is bounded by n
+    private List<AuditLog> topN(AuditSearchRequest request, int n, Comparator<AuditLog> order) {
+        PriorityQueue<AuditLog> top = new PriorityQueue<>(n + 1, order.reversed());
+        try (Stream<AuditLog> auditLogs = coldRepository.streamSearch(request)) {
+            auditLogs.forEach(auditLog -> {
+                top.add(auditLog);
+                if (top.size() > n) {
+                    top.poll();
+                }
+            });
+        }
+        List<AuditLog> result = new ArrayList<>(top);
+        result.sort(order);
+        return result;
+    }
+
+    private static List<AuditLog> merge(List<AuditLog> left, List<AuditLog> right, Comparator<AuditLog> order) {
+        List<AuditLog> merged = new ArrayList<>(left.size() + right.size());
+        Iterator<AuditLog> l = left.iterator();
+        Iterator<AuditLog> r = right.iterator();
+        AuditLog nextLeft = l.hasNext() ? l.next() : null;
+        AuditLog nextRight = r.hasNext() ? r.next() : null;
+        while (nextLeft != null || nextRight != null) {
+            if (nextRight == null || (nextLeft != null && order.compare(nextLeft, nextRight) <= 0)) {
+                merged.add(nextLeft);
+                nextLeft = l.hasNext() ? l.next() : null;
+            } else {
+                merged.add(nextRight);
+                nextRight = r.hasNext() ? r.next() : null;
+            }
+        }
+        return merged;
+    }
+
+    private static AuditSearchRequest copyOf(AuditSearchRequest request) {
+        AuditSearchRequest copy = new AuditSearchRequest();
+        copy.setStartTime(request.getStartTime());
+        copy.setEndTime(request.getEndTime());
+        copy.setEntityType(request.getEntityType());
+        copy.setEntityId(request.getEntityId());
+        copy.setEventId(request.getEventId());
+        copy.setEventType(request.getEventType());
+        copy.setSourceService(request.getSourceService());
+        copy.setChangedByUserId(request.getChangedByUserId());
+        copy.setRoles(request.getRoles());
+        copy.setPage(request.getPage());
+        copy.setSize(request.getSize());
+        copy.setSort(request.getSort());
+        copy.setCursor(request.getCursor());
+        return copy;
+    }
+
+    private record TierPlan(AuditSearchRequest hot, AuditSearchRequest cold) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.dilip.audit_service.wal;
+
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.config.WalConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.services.AuditWritePipeline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puts the write-ahead log in front of the storage tiers: events are acknowledged once appended to the local
+ * log and drained into Elasticsearch and S3 in the background.
+ * <p>
+ * The drainer reads from the checkpoint, writes a batch to both tiers and moves the checkpoint up to the first
+ * event that failed, so a store outage just delays draining and a restart replays whatever was not drained.
+ * Events stored after a failed one are remembered and skipped by the retry, so only the failed events are
+ * written again; after a restart they are replayed, so an event may be stored more than once but is never lost.
+ */
+@Component
+@Profile({"dev", "prod"})
+@ConditionalOnProperty(prefix = "audit.wal", name = "enabled", havingValue = "true")
+public class WalAuditWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(WalAuditWriter.class);
+
+    private final WriteAheadLog writeAheadLog;
+    private final AuditWritePipeline auditWritePipeline;
+    private final AuditEventCodec codec;
+    private final WalConfig config;
+    // eventIds stored beyond the checkpoint, behind an event that failed; only used by the drainer
+    private final Set<String> storedAhead = new HashSet<>();
+
+    public WalAuditWriter(WriteAheadLog writeAheadLog,
+                          AuditWritePipeline auditWritePipeline,
+                          AuditEventCodec codec,
+                          WalConfig config) {
+        this.writeAheadLog = writeAheadLog;
+        this.auditWritePipeline = auditWritePipeline;
+        this.codec = codec;
+        this.config = config;
+    }
+
+    /**
+     * Appends the event to the log; the future completes once it is fsync'ed.
+     */
+    public CompletableFuture<Void> write(AuditLog auditLog) {
+        try {
+            return writeAheadLog.append(codec.encode(auditLog));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("failed to serialize audit event " + auditLog.getEventId(), e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${audit.wal.drainInterval:200ms}")
+    public void drain() {
+        while (writeAheadLog.hasUndrainedRecords()) {
+            long checkpoint = writeAheadLog.checkpoint();
+            WriteAheadLog.WalBatch batch = writeAheadLog.read(checkpoint, config.getDrainBatchSize());
+            List<WriteAheadLog.WalRecord> records = batch.records();
+            if (records.isEmpty()) {
+                // only corrupt records were left, move past them
+                if (batch.endPosition() <= checkpoint) {
+                    return;
+                }
+                writeAheadLog.checkpoint(batch.endPosition());
+                continue;
+            }
+
+            // index-aligned with records, null for a record that can never be stored
+            List<AuditLog> auditLogs = new ArrayList<>(records.size());
+            List<AuditLog> unstored = new ArrayList<>();
+            for (WriteAheadLog.WalRecord record : records) {
+                AuditLog auditLog = decode(record);
+                auditLogs.add(auditLog);
+                if (auditLog != null && !storedAhead.contains(auditLog.getEventId())) {
+                    unstored.add(auditLog);
+                }
+            }
+            Map<String, String> failures = unstored.isEmpty()
+                    ? Map.of()
+                    : auditWritePipeline.writeAll(unstored).join().failures();
+
+            int firstFailed = 0;
+            while (firstFailed < records.size() && !failed(auditLogs.get(firstFailed), failures)) {
+                firstFailed++;
+            }
+            for (int i = 0; i < auditLogs.size(); i++) {
+                AuditLog auditLog = auditLogs.get(i);
+                if (auditLog == null) {
+                    continue;
+                }
+                if (i < firstFailed) {
+                    storedAhead.remove(auditLog.getEventId());
+                } else if (!failed(auditLog, failures)) {
+                    storedAhead.add(auditLog.getEventId());
+                }
+            }
+            if (firstFailed == records.size()) {
+                writeAheadLog.checkpoint(batch.endPosition());
+            } else if (firstFailed > 0) {
+                writeAheadLog.checkpoint(records.get(firstFailed - 1).nextPosition());
+            }
+            if (firstFailed < records.size()) {
+                log.warn("failed to drain {} of {} WAL events, retrying them on the next round: {}",
+                        failures.size(), unstored.size(), failures.keySet());
+                return;
+            }
+        }
+    }
+
+    private AuditLog decode(WriteAheadLog.WalRecord record) {
+        try {
+            return codec.decode(record.payload());
+        } catch (IOException e) {
+            // the record passed its checksum, so it was written like this and can never be stored
+            log.error("dropping undeserializable WAL record before {}", record.nextPosition(), e);
+            return null;
+        }
+    }
+
+    private static boolean failed(AuditLog auditLog, Map<String, String> failures) {
+        return auditLog != null && auditLog.getEventId() != null && failures.containsKey(auditLog.getEventId());
+    }
+}
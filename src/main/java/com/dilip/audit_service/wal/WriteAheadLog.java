@@ -0,0 +1,356 @@
+package com.dilip.audit_service.wal;
+
+import com.dilip.audit_service.config.WalConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, segmented, memory-mapped log on local disk.
+ * <p>
+ * Every record is written as {@code [int length][int crc32c][payload]} into the current segment file, which is
+ * mapped in full and zero filled, so a zero length marks the end of the written data. Appends return a future
+ * that completes once the record is fsync'ed; a single sync thread forces the segment for every append that
+ * arrived since its last round, so concurrent writers share one fsync (group commit).
+ * <p>
+ * Records are addressed by a position made of the segment id (high 32 bits) and the offset in the segment
+ * (low 32 bits). The consumer reads from the last {@link #checkpoint() checkpoint} and moves it forward once
+ * the records are stored elsewhere; segments entirely below the checkpoint are deleted. On startup the last
+ * segment is scanned up to the first torn or corrupt record, which is where appending resumes. A record found
+ * corrupt while reading is logged and skipped rather than blocking the records behind it.
+ */
+@Component
+@Profile({"dev", "prod"})
+@ConditionalOnProperty(prefix = "audit.wal", name = "enabled", havingValue = "true")
+public class WriteAheadLog {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_BYTES = 8;
+
+    private final WalConfig config;
+    private final NavigableMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncRequested = lock.newCondition();
+
+    private Path directory;
+    private int segmentBytes;
+    private Segment current;
+    private List<CompletableFuture<Void>> pendingSync = new ArrayList<>();
+    private volatile long writePosition;
+    private volatile long checkpoint;
+    private volatile boolean closed;
+    private Thread syncThread;
+
+    public WriteAheadLog(WalConfig config) {
+        this.config = config;
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        this.directory = Paths.get(config.getDirectory());
+        this.segmentBytes = config.getSegmentBytes();
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).toList()) {
+                String name = path.getFileName().toString();
+                long id = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                segments.put(id, openSegment(id));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.put(0L, openSegment(0));
+        }
+        current = segments.lastEntry().getValue();
+        writePosition = position(current.id, recover(current));
+
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        long firstPosition = position(segments.firstKey(), 0);
+        checkpoint = Files.exists(checkpointFile)
+                ? Math.max(Long.parseLong(Files.readString(checkpointFile).trim()), firstPosition)
+                : firstPosition;
+        log.info("opened write-ahead log {} with {} segment(s), resuming at {} with checkpoint {}",
+                directory, segments.size(), describe(writePosition), describe(checkpoint));
+
+        syncThread = new Thread(this::syncLoop, "wal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        lock.lock();
+        try {
+            closed = true;
+            syncRequested.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        syncThread.join();
+        current.buffer.force();
+        segments.values().forEach(Segment::close);
+    }
+
+    /**
+     * Appends the payload and returns a future completing once it is durable on disk.
+     */
+    public CompletableFuture<Void> append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (payload.length == 0 || recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("WAL record of %d bytes does not fit a segment".formatted(payload.length));
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+
+        CompletableFuture<Void> synced = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("write-ahead log is closed");
+            }
+            int offset = offset(writePosition);
+            if (offset + recordBytes > segmentBytes) {
+                roll();
+                offset = 0;
+            }
+            current.buffer.put(offset + HEADER_BYTES, payload);
+            current.buffer.putInt(offset + 4, (int) crc.getValue());
+            // the length goes last, a reader never sees a length without its payload
+            current.buffer.putInt(offset, payload.length);
+            writePosition = position(current.id, offset + recordBytes);
+            pendingSync.add(synced);
+            syncRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+        return synced;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} records starting at {@code from}, typically the checkpoint. Corrupt records
+     * are logged and skipped, the batch's end position is past them even when no record follows.
+     */
+    public WalBatch read(long from, int maxRecords) {
+        List<WalRecord> records = new ArrayList<>();
+        long end = writePosition;
+        long position = from;
+        while (records.size() < maxRecords && position < end) {
+            long segmentId = segmentId(position);
+            Segment segment = segments.get(segmentId);
+            int offset = offset(position);
+            int length = segment != null && offset + HEADER_BYTES <= segmentBytes ? segment.buffer.getInt(offset) : 0;
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+                if (segmentId == segmentId(end)) {
+                    // before the write position, so this is written data with a corrupt length: nothing up to the
+                    // write position can be located any more
+                    log.error("corrupt WAL record length at {}, skipping to {}", describe(position), describe(end));
+                    position = end;
+                    break;
+                }
+                // end of this segment, continue with the next one
+                Long next = segments.higherKey(segmentId);
+                if (next == null) {
+                    break;
+                }
+                position = position(next, 0);
+                continue;
+            }
+
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            long nextPosition = position(segmentId, offset + HEADER_BYTES + length);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(offset + 4)) {
+                log.error("corrupt WAL record at {} in {}, skipping it", describe(position), segment.path);
+                position = nextPosition;
+                continue;
+            }
+            position = nextPosition;
+            records.add(new WalRecord(position, payload));
+        }
+        return new WalBatch(records, position);
+    }
+
+    public long checkpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Marks everything before {@code position} as consumed and deletes the segments no longer needed.
+     */
+    public void checkpoint(long position) {
+        try {
+            Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+            Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            Files.writeString(tmp, Long.toString(position), StandardCharsets.UTF_8);
+            Files.move(tmp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to write WAL checkpoint", e);
+        }
+        checkpoint = position;
+
+        for (Segment segment : segments.headMap(segmentId(position), false).values()) {
+            if (segment == current) {
+                continue;
+            }
+            segments.remove(segment.id);
+            segment.close();
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("failed to delete drained WAL segment {}", segment.path, e);
+            }
+        }
+    }
+
+    /**
+     * Whether records were appended that are not checkpointed yet.
+     */
+    public boolean hasUndrainedRecords() {
+        return checkpoint < writePosition;
+    }
+
+    private void syncLoop() {
+        while (true) {
+            List<CompletableFuture<Void>> batch;
+            Segment segment;
+            lock.lock();
+            try {
+                while (pendingSync.isEmpty() && !closed) {
+                    syncRequested.awaitUninterruptibly();
+                }
+                if (pendingSync.isEmpty()) {
+                    return;
+                }
+                batch = pendingSync;
+                pendingSync = new ArrayList<>();
+                segment = current;
+            } finally {
+                lock.unlock();
+            }
+            // appends made meanwhile are picked up by the next round; rolled segments were forced when rolling
+            try {
+                segment.buffer.force();
+                batch.forEach(future -> future.complete(null));
+            } catch (RuntimeException e) {
+                log.error("failed to fsync WAL segment {}", segment.path, e);
+                batch.forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+
+    // called with the lock held
+    private void roll() {
+        current.buffer.force();
+        Segment next = openSegment(current.id + 1);
+        segments.put(next.id, next);
+        current = next;
+        writePosition = position(next.id, 0);
+    }
+
+    /**
+     * Finds the end of the valid records of a segment and zeroes everything after it, so that a torn write
+     * left by a crash is never mistaken for data once new records are appended.
+     */
+    private int recover(Segment segment) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= segmentBytes) {
+            int length = segment.buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != segment.buffer.getInt(offset + 4)) {
+                log.warn("truncating WAL segment {} at torn record offset {}", segment.path, offset);
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = offset; i < segmentBytes; i += zeros.length) {
+            segment.buffer.put(i, zeros, 0, Math.min(zeros.length, segmentBytes - i));
+        }
+        segment.buffer.force();
+        return offset;
+    }
+
+    private Segment openSegment(long id) {
+        Path path = directory.resolve("%020d%s".formatted(id, SEGMENT_SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            return new Segment(id, path, channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("failed to open WAL segment " + path, e);
+        }
+    }
+
+    private static long position(long segmentId, int offset) {
+        return (segmentId << 32) | offset;
+    }
+
+    private static long segmentId(long position) {
+        return position >>> 32;
+    }
+
+    private static int offset(long position) {
+        return (int) position;
+    }
+
+    private static String describe(long position) {
+        return segmentId(position) + ":" + offset(position);
+    }
+
+    /**
+     * A record's payload and the position right after it, to checkpoint once the record is consumed.
+     */
+    public record WalRecord(long nextPosition, byte[] payload) {
+    }
+
+    /**
+     * The records of one read and the position it stopped at, past any corrupt record skipped after the last one.
+     */
+    public record WalBatch(List<WalRecord> records, long endPosition) {
+    }
+
+    private record Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("failed to close WAL segment {}", path, e);
+            }
+        }
+    }
+}
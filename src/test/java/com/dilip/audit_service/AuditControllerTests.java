@@ -198,8 +198,8 @@ public class AuditControllerTests {
       {
         "entityType": "User",
         "eventType": "UserCreated",
-        "startTime": "2024-05-05T00:00:00Z",
-        "endTime": "2024-05-05T23:59:59Z",
+        "startTime": "2025-05-05T00:00:00Z",
+        "endTime": "2025-05-05T23:59:59Z",
         "changedByUserId": "user-001"
       }
     """;
@@ -221,8 +221,8 @@ public class AuditControllerTests {
       {
         "entityType": "User",
         "eventType": "UserCreated",
-        "startTime": "2024-05-05T00:00:00Z",
-        "endTime": "2024-05-05T23:59:59Z",
+        "startTime": "2025-05-05T00:00:00Z",
+        "endTime": "2025-05-05T23:59:59Z",
         "changedByUserId": "user-001"
       }
     """;
@@ -245,8 +245,8 @@ public class AuditControllerTests {
       {
         "entityType": "User",
         "eventType": "UserCreated",
-        "startTime": "2024-05-05T00:00:00Z",
-        "endTime": "2024-05-05T23:59:59Z",
+        "startTime": "2025-05-05T00:00:00Z",
+        "endTime": "2025-05-05T23:59:59Z",
         "changedByUserId": "admin123"
       }
     """;
@@ -0,0 +1,53 @@
+package com.dilip.audit_service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dilip.audit_service.data.repository.ColdStorageQueryPlanner;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+public class ColdStorageQueryPlannerTests {
+
+    @Test
+    @DisplayName("itShouldListSingleDayPrefix_whenRangeCoversWholeDay")
+    public void itShouldListSingleDayPrefix_whenRangeCoversWholeDay() {
+        assertThat(ColdStorageQueryPlanner.plan(
+                Instant.parse("2025-05-05T00:00:00Z"), Instant.parse("2025-05-05T23:59:59Z")))
+                .containsExactly("logs/dt=2025-05-05/");
+    }
+
+    @Test
+    @DisplayName("itShouldListHourPrefixes_whenRangeCoversPartialDays")
+    public void itShouldListHourPrefixes_whenRangeCoversPartialDays() {
+        assertThat(ColdStorageQueryPlanner.plan(
+                Instant.parse("2025-05-05T22:15:00Z"), Instant.parse("2025-05-07T01:00:00Z")))
+                .containsExactly(
+                        "logs/dt=2025-05-05/hour=22/",
+                        "logs/dt=2025-05-05/hour=23/",
+                        "logs/dt=2025-05-06/",
+                        "logs/dt=2025-05-07/hour=00/",
+                        "logs/dt=2025-05-07/hour=01/");
+    }
+
+    @Test
+    @DisplayName("itShouldCollapseWholeMonthsAndYears_whenRangeCoversThem")
+    public void itShouldCollapseWholeMonthsAndYears_whenRangeCoversThem() {
+        assertThat(ColdStorageQueryPlanner.plan(
+                Instant.parse("2024-12-31T00:00:00Z"), Instant.parse("2026-02-28T23:00:00Z")))
+                .containsExactly(
+                        "logs/dt=2024-12-31/",
+                        "logs/dt=2025-",
+                        "logs/dt=2026-01-",
+                        "logs/dt=2026-02-");
+    }
+
+    @Test
+    @DisplayName("itShouldListNothing_whenRangeIsEmpty")
+    public void itShouldListNothing_whenRangeIsEmpty() {
+        assertThat(ColdStorageQueryPlanner.plan(
+                Instant.parse("2025-05-06T00:00:00Z"), Instant.parse("2025-05-05T00:00:00Z")))
+                .isEmpty();
+    }
+}
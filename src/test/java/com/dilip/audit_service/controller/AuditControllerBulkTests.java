@@ -0,0 +1,163 @@
+package com.dilip.audit_service.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.common.BulkIngestResult;
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.exception.TooManyRequestsException;
+import com.dilip.audit_service.services.AuditService;
+import com.dilip.audit_service.services.AuditStatsService;
+import com.dilip.audit_service.services.IngestMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+public class AuditControllerBulkTests {
+
+    private final AuditService auditService = mock(AuditService.class);
+    // copies of the chunks written, the controller reuses its chunk list
+    private final List<List<AuditLog>> written = new ArrayList<>();
+    private final AuditController auditController = new AuditController(auditService, mock(AuditStatsService.class),
+            new ObjectMapper().findAndRegisterModules(), new IngestMetrics(new SimpleMeterRegistry()));
+
+    {
+        ReflectionTestUtils.setField(auditController, "bulkChunkSize", 500);
+        ReflectionTestUtils.setField(auditController, "maxBulkEvents", 100_000);
+    }
+
+    @Test
+    @DisplayName("itShouldReportEveryLineSeparately_whenSomeLinesAreNotEvents")
+    public void itShouldReportEveryLineSeparately_whenSomeLinesAreNotEvents() throws Exception {
+        stubWrites(chunk -> new BulkWriteResult(chunk.size(), Map.of("6", "elasticsearch write timed out after PT5S")));
+
+        BulkIngestResult result = bulk(
+                event("1"),
+                "[1, 2]",
+                "\"user-service\"",
+                "null",
+                "{\"sourceService\":\"user-service\"}",
+                event("6"));
+
+        assertThat(result.errors()).isTrue();
+        assertThat(result.items()).extracting(BulkIngestResult.Item::line).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(result.items()).extracting(BulkIngestResult.Item::status)
+                .containsExactly(201, 400, 400, 400, 400, 503);
+        assertThat(result.items().get(1).error()).isEqualTo("each line must be a JSON object");
+        assertThat(result.items().get(4).error()).isEqualTo("eventId is required");
+        assertThat(result.items().get(5).eventId()).isEqualTo("6");
+        assertThat(written).containsExactly(List.of(auditLog("1"), auditLog("6")));
+    }
+
+    @Test
+    @DisplayName("itShouldStoreTheLinesBeforeIt_whenALineIsMalformedJson")
+    public void itShouldStoreTheLinesBeforeIt_whenALineIsMalformedJson() throws Exception {
+        stubWrites(chunk -> BulkWriteResult.success(chunk.size()));
+
+        BulkIngestResult result = bulk(event("1"), "{\"eventId\": ", event("3"));
+
+        assertThat(result.items()).extracting(BulkIngestResult.Item::status).containsExactly(201, 400);
+        assertThat(result.items().get(1).error()).startsWith("malformed NDJSON");
+        assertThat(written).containsExactly(List.of(auditLog("1")));
+    }
+
+    @Test
+    @DisplayName("itShouldWriteInChunks_whenBodyIsLargerThanAChunk")
+    public void itShouldWriteInChunks_whenBodyIsLargerThanAChunk() throws Exception {
+        ReflectionTestUtils.setField(auditController, "bulkChunkSize", 2);
+        stubWrites(chunk -> BulkWriteResult.success(chunk.size()));
+
+        BulkIngestResult result = bulk(event("1"), event("2"), event("3"), event("4"), event("5"));
+
+        assertThat(written).extracting(List::size).containsExactly(2, 2, 1);
+        assertThat(result.errors()).isFalse();
+        assertThat(result.items()).extracting(BulkIngestResult.Item::status).containsOnly(201).hasSize(5);
+    }
+
+    @Test
+    @DisplayName("itShouldRejectTheRestOfTheBody_whenItHasMoreEventsThanAllowed")
+    public void itShouldRejectTheRestOfTheBody_whenItHasMoreEventsThanAllowed() throws Exception {
+        ReflectionTestUtils.setField(auditController, "maxBulkEvents", 2);
+        when(auditService.saveAuditLogs(anyList())).thenReturn(BulkWriteResult.success(2));
+
+        BulkIngestResult result = bulk(event("1"), event("2"), event("3"), event("4"));
+
+        assertThat(result.items()).extracting(BulkIngestResult.Item::status).containsExactly(201, 201, 400);
+        assertThat(result.items().get(2).error()).startsWith("at most 2 events per request");
+    }
+
+    @Test
+    @DisplayName("itShouldRejectEveryEventOfTheChunkWith429_whenStorageIsSaturated")
+    public void itShouldRejectEveryEventOfTheChunkWith429_whenStorageIsSaturated() throws Exception {
+        when(auditService.saveAuditLogs(anyList()))
+                .thenThrow(new TooManyRequestsException("saturated", Duration.ofSeconds(1)));
+
+        BulkIngestResult result = bulk(event("1"), event("2"));
+
+        assertThat(result.errors()).isTrue();
+        assertThat(result.items()).extracting(BulkIngestResult.Item::status).containsExactly(429, 429);
+    }
+
+    @Test
+    @DisplayName("itShouldRejectTheLine_whenTheEventHasNoTimestamp")
+    public void itShouldRejectTheLine_whenTheEventHasNoTimestamp() throws Exception {
+        stubWrites(chunk -> BulkWriteResult.success(chunk.size()));
+
+        BulkIngestResult result = bulk(event("1"), "{\"eventId\":\"2\",\"sourceService\":\"user-service\"}");
+
+        assertThat(result.items()).extracting(BulkIngestResult.Item::status).containsExactly(201, 400);
+        assertThat(result.items().get(1).error()).isEqualTo("timestamp is required");
+        assertThat(written).containsExactly(List.of(auditLog("1")));
+    }
+
+    @Test
+    @DisplayName("itShouldNotWrite_whenNoLineIsAnEvent")
+    public void itShouldNotWrite_whenNoLineIsAnEvent() throws Exception {
+        BulkIngestResult result = bulk("42", "{}");
+
+        assertThat(result.items()).extracting(BulkIngestResult.Item::status).containsExactly(400, 400);
+        verify(auditService, never()).saveAuditLogs(anyList());
+    }
+
+    private void stubWrites(Function<List<AuditLog>, BulkWriteResult> result) {
+        when(auditService.saveAuditLogs(anyList())).thenAnswer(invocation -> {
+            List<AuditLog> chunk = List.copyOf(invocation.getArgument(0));
+            written.add(chunk);
+            return result.apply(chunk);
+        });
+    }
+
+    private BulkIngestResult bulk(String... lines) throws Exception {
+        byte[] body = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        return auditController.bulkWriteAuditLogs(new ByteArrayInputStream(body)).getBody();
+    }
+
+    private static String event(String eventId) {
+        return "{\"eventId\":\"%s\",\"timestamp\":\"2025-05-05T14:00:00Z\",\"sourceService\":\"user-service\"}"
+                .formatted(eventId);
+    }
+
+    private static AuditLog auditLog(String eventId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        auditLog.setSourceService("user-service");
+        return auditLog;
+    }
+}
@@ -0,0 +1,139 @@
+package com.dilip.audit_service.data.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.query_dsl.DateRangeQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class AuditQueryCompilerTests {
+
+    private static final UserContext ADMIN = new UserContext("admin123", "admin", List.of("ROLE_ADMIN"));
+    private static final UserContext USER = new UserContext("user-001", "user", List.of("ROLE_USER"));
+
+    @Test
+    @DisplayName("itShouldCompileToAnEmptyFilter_whenAdminSearchesWithoutCriteria")
+    public void itShouldCompileToAnEmptyFilter_whenAdminSearchesWithoutCriteria() {
+        Query query = AuditQueryCompiler.compile(new AuditSearchRequest(), ADMIN);
+
+        assertThat(query.isBool()).isTrue();
+        assertThat(query.bool().filter()).isEmpty();
+        assertThat(query.bool().must()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("itShouldCompileEveryFieldToATermFilterOnItsKeyword_whenFieldsAreSet")
+    public void itShouldCompileEveryFieldToATermFilterOnItsKeyword_whenFieldsAreSet() {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setEventId("1");
+        request.setEventType("USER_UPDATED");
+        request.setEntityType("user");
+        request.setEntityId("42");
+        request.setSourceService("user-service");
+        request.setChangedByUserId("user-007");
+
+        assertThat(terms(AuditQueryCompiler.compile(request, ADMIN))).containsExactly(
+                Map.entry("eventId", "1"),
+                Map.entry("eventType", "USER_UPDATED"),
+                Map.entry("entityType", "user"),
+                Map.entry("entityId", "42"),
+                Map.entry("sourceService", "user-service"),
+                Map.entry("changedBy.userId", "user-007"));
+    }
+
+    @Test
+    @DisplayName("itShouldScopeToTheCurrentUser_whenNonAdminSearches")
+    public void itShouldScopeToTheCurrentUser_whenNonAdminSearches() {
+        assertThat(terms(AuditQueryCompiler.compile(new AuditSearchRequest(), USER)))
+                .containsExactly(Map.entry("changedBy.userId", "user-001"));
+
+        AuditSearchRequest otherUser = new AuditSearchRequest();
+        otherUser.setChangedByUserId("admin123");
+        assertThat(terms(AuditQueryCompiler.compile(otherUser, USER)))
+                .containsExactly(Map.entry("changedBy.userId", "user-001"));
+    }
+
+    @Test
+    @DisplayName("itShouldMatchAnyRole_whenRolesAreSet")
+    public void itShouldMatchAnyRole_whenRolesAreSet() {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setRoles(List.of("ROLE_ADMIN", "ROLE_USER"));
+
+        Query filter = AuditQueryCompiler.compile(request, ADMIN).bool().filter().get(0);
+
+        assertThat(filter.terms().field()).isEqualTo("changedBy.roles");
+        assertThat(filter.terms().terms().value()).extracting(FieldValue::stringValue)
+                .containsExactly("ROLE_ADMIN", "ROLE_USER");
+    }
+
+    @Test
+    @DisplayName("itShouldFilterOnTheTimestampRange_whenStartAndEndAreSet")
+    public void itShouldFilterOnTheTimestampRange_whenStartAndEndAreSet() {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setStartTime("2025-05-05T00:00:00Z");
+        request.setEndTime("2025-05-06T00:00:00Z");
+
+        DateRangeQuery range = AuditQueryCompiler.compile(request, ADMIN).bool().filter().get(0).range().date();
+
+        assertThat(range.field()).isEqualTo("timestamp");
+        assertThat(range.gte()).isEqualTo("2025-05-05T00:00:00Z");
+        assertThat(range.lte()).isEqualTo("2025-05-06T00:00:00Z");
+        assertThat(range.lt()).isNull();
+    }
+
+    @Test
+    @DisplayName("itShouldExcludeTheEnd_whenCompilingForStats")
+    public void itShouldExcludeTheEnd_whenCompilingForStats() {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setStartTime("2025-05-05T00:00:00Z");
+        request.setEndTime("2025-05-06T00:00:00Z");
+
+        DateRangeQuery range = AuditQueryCompiler.compile(request, ADMIN, true).bool().filter().get(0).range().date();
+
+        assertThat(range.gte()).isEqualTo("2025-05-05T00:00:00Z");
+        assertThat(range.lt()).isEqualTo("2025-05-06T00:00:00Z");
+        assertThat(range.lte()).isNull();
+    }
+
+    @Test
+    @DisplayName("itShouldLeaveTheRangeOpen_whenOnlyStartIsSet")
+    public void itShouldLeaveTheRangeOpen_whenOnlyStartIsSet() {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setStartTime("2025-05-05T00:00:00Z");
+
+        DateRangeQuery range = AuditQueryCompiler.compile(request, ADMIN).bool().filter().get(0).range().date();
+
+        assertThat(range.gte()).isEqualTo("2025-05-05T00:00:00Z");
+        assertThat(range.lte()).isNull();
+    }
+
+    @Test
+    @DisplayName("itShouldRejectTheSearch_whenATimeIsNotIso8601")
+    public void itShouldRejectTheSearch_whenATimeIsNotIso8601() {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setEndTime("yesterday");
+
+        assertThatThrownBy(() -> AuditQueryCompiler.compile(request, ADMIN))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static Map<String, String> terms(Query query) {
+        Map<String, String> terms = new LinkedHashMap<>();
+        for (Query filter : query.bool().filter()) {
+            TermQuery term = filter.term();
+            terms.put(term.field(), term.value().stringValue());
+        }
+        return terms;
+    }
+}
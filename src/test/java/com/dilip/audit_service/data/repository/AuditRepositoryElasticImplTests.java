@@ -0,0 +1,134 @@
+package com.dilip.audit_service.data.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.DeletionResult;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.rollup.EventRollups;
+import com.dilip.audit_service.services.UserContextService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.MultiGetItem;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.Query;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class AuditRepositoryElasticImplTests {
+
+    private static final UserContext ADMIN = new UserContext("admin123", "admin", List.of("ROLE_ADMIN"));
+
+    private final ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class);
+    private final UserContextService userContextService = mock(UserContextService.class);
+    private final EventRollups eventRollups = mock(EventRollups.class);
+    private final AuditRepositoryElasticImpl repository = new AuditRepositoryElasticImpl(elasticsearchOperations,
+            userContextService, new ObjectMapper(), eventRollups);
+    // documents per daily index, as seen by a realtime _mget
+    private final Map<String, Map<String, AuditLog>> indices = new HashMap<>();
+    // documents the ids search over the alias sees, i.e. refreshed ones
+    private final List<SearchHit<AuditLog>> refreshed = new ArrayList<>();
+    private final String today = AuditIndexLayout.indexOf(Instant.now());
+    private final String yesterday = AuditIndexLayout.indexOf(Instant.now().minus(Duration.ofDays(1)));
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void stubElasticsearch() {
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(ADMIN));
+        when(elasticsearchOperations.multiGet(any(Query.class), eq(AuditLog.class), any(IndexCoordinates.class)))
+                .thenAnswer(invocation -> {
+                    Query query = invocation.getArgument(0);
+                    String index = invocation.<IndexCoordinates>getArgument(2).getIndexName();
+                    Map<String, AuditLog> documents = indices.getOrDefault(index, Map.of());
+                    return query.getIdsWithRouting().stream()
+                            .map(id -> MultiGetItem.of(documents.get(id.id()), null))
+                            .toList();
+                });
+        when(elasticsearchOperations.search(any(Query.class), eq(AuditLog.class), any(IndexCoordinates.class)))
+                .thenAnswer(invocation -> {
+                    SearchHits<AuditLog> hits = mock(SearchHits.class);
+                    when(hits.iterator()).thenAnswer(ignored -> refreshed.iterator());
+                    return hits;
+                });
+    }
+
+    @Test
+    @DisplayName("itShouldFindUnrefreshedEvent_whenItIsInTodaysIndex")
+    public void itShouldFindUnrefreshedEvent_whenItIsInTodaysIndex() {
+        indices.put(today, Map.of("1", event("1")));
+
+        assertThat(repository.findByEventId("1")).map(AuditLog::getEventId).hasValue("1");
+        verify(elasticsearchOperations, never()).search(any(Query.class), eq(AuditLog.class), any(IndexCoordinates.class));
+    }
+
+    @Test
+    @DisplayName("itShouldFetchFromYesterdaysIndexThenSearchTheAlias_whenIdsAreNotInTodaysIndex")
+    public void itShouldFetchFromYesterdaysIndexThenSearchTheAlias_whenIdsAreNotInTodaysIndex() {
+        indices.put(today, Map.of("1", event("1")));
+        indices.put(yesterday, Map.of("2", event("2")));
+        refreshed.add(hit(event("3"), "audit-logs-2025.05.05"));
+
+        BatchLookupResult result = repository.findByEventIds(List.of("3", "2", "1", "4"));
+
+        assertThat(result.found()).extracting(AuditLog::getEventId).containsExactly("3", "2", "1");
+        assertThat(result.missing()).containsExactly("4");
+        verify(elasticsearchOperations).search(any(Query.class), eq(AuditLog.class),
+                eq(IndexCoordinates.of(AuditIndexLayout.ALIAS)));
+    }
+
+    @Test
+    @DisplayName("itShouldDeleteFromTheIndexTheEventWasFoundIn_whenDeletingARecentEvent")
+    public void itShouldDeleteFromTheIndexTheEventWasFoundIn_whenDeletingARecentEvent() {
+        indices.put(yesterday, Map.of("1", event("1")));
+
+        assertThat(repository.deleteEvent("1")).isInstanceOf(DeletionResult.DeletionSuccess.class);
+
+        verify(elasticsearchOperations).delete("1", IndexCoordinates.of(yesterday));
+        verify(eventRollups).forget(event("1"));
+    }
+
+    @Test
+    @DisplayName("itShouldReportNotFound_whenNoIndexHasTheEvent")
+    public void itShouldReportNotFound_whenNoIndexHasTheEvent() {
+        assertThat(repository.deleteEvent("1")).isInstanceOf(DeletionResult.DeletionNotFound.class);
+
+        verify(elasticsearchOperations, never()).delete(any(String.class), any(IndexCoordinates.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SearchHit<AuditLog> hit(AuditLog auditLog, String index) {
+        SearchHit<AuditLog> hit = mock(SearchHit.class);
+        when(hit.getId()).thenReturn(auditLog.getEventId());
+        when(hit.getContent()).thenReturn(auditLog);
+        when(hit.getIndex()).thenReturn(index);
+        return hit;
+    }
+
+    private static AuditLog event(String eventId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        AuditLog.ChangedBy changedBy = new AuditLog.ChangedBy();
+        changedBy.setUserId("admin123");
+        auditLog.setChangedBy(changedBy);
+        return auditLog;
+    }
+}
@@ -0,0 +1,124 @@
+package com.dilip.audit_service.data.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.config.EventCodecConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class S3ScanEngineTests {
+
+    private static final String BUCKET = "audit-bucket";
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private final AmazonS3 amazonS3 = mock(AmazonS3.class);
+    private final S3ScanEngine scanEngine = new S3ScanEngine(amazonS3,
+            new AuditEventCodec(mapper, new EventCodecConfig()), mapper, 2);
+
+    {
+        ReflectionTestUtils.setField(scanEngine, "bucketName", BUCKET);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        scanEngine.shutdown();
+    }
+
+    @Test
+    @DisplayName("itShouldFollowContinuationTokens_whenListingSpansPages")
+    public void itShouldFollowContinuationTokens_whenListingSpansPages() {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+            ListObjectsV2Request request = invocation.getArgument(0);
+            return request.getContinuationToken() == null
+                    ? page("next", "logs/1.json", "logs/2.json")
+                    : page(null, "logs/3.json");
+        });
+
+        assertThat(scanEngine.listObjects("logs/").map(S3ObjectSummary::getKey))
+                .containsExactly("logs/1.json", "logs/2.json", "logs/3.json");
+    }
+
+    @Test
+    @DisplayName("itShouldStreamMatchingEventsInKeyOrder_whenObjectsAreFetchedConcurrently")
+    public void itShouldStreamMatchingEventsInKeyOrder_whenObjectsAreFetchedConcurrently() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class)))
+                .thenReturn(page(null, "logs/1.json", "logs/2.json", "logs/3.json", "logs/manifest.txt"));
+        for (String eventId : List.of("1", "2", "3")) {
+            stubObject("logs/" + eventId + ".json", event(eventId, eventId.equals("2") ? "order-service" : "user-service"));
+        }
+
+        try (Stream<AuditLog> events = scanEngine.scan("logs/",
+                auditLog -> "user-service".equals(auditLog.getSourceService()))) {
+            assertThat(events.map(AuditLog::getEventId)).containsExactly("1", "3");
+        }
+        verify(amazonS3, never()).getObject(BUCKET, "logs/manifest.txt");
+    }
+
+    @Test
+    @DisplayName("itShouldStopFetching_whenStreamIsClosedEarly")
+    public void itShouldStopFetching_whenStreamIsClosedEarly() throws Exception {
+        when(amazonS3.listObjectsV2(any(ListObjectsV2Request.class)))
+                .thenReturn(page(null, "logs/1.json", "logs/2.json", "logs/3.json", "logs/4.json", "logs/5.json"));
+        for (String eventId : List.of("1", "2", "3", "4", "5")) {
+            stubObject("logs/" + eventId + ".json", event(eventId, "user-service"));
+        }
+
+        try (Stream<AuditLog> events = scanEngine.scan("logs/", auditLog -> true)) {
+            assertThat(events.limit(1).map(AuditLog::getEventId)).containsExactly("1");
+        }
+        // only the objects within the read-ahead window (parallelism 2) are ever requested
+        verify(amazonS3, never()).getObject(eq(BUCKET), eq("logs/5.json"));
+    }
+
+    private void stubObject(String key, AuditLog auditLog) throws Exception {
+        byte[] content = mapper.writeValueAsBytes(auditLog);
+        when(amazonS3.getObject(BUCKET, key)).thenAnswer(invocation -> {
+            S3Object object = new S3Object();
+            object.setKey(key);
+            object.setObjectContent(new ByteArrayInputStream(content));
+            return object;
+        });
+    }
+
+    private static ListObjectsV2Result page(String nextContinuationToken, String... keys) {
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        for (String key : keys) {
+            S3ObjectSummary summary = new S3ObjectSummary();
+            summary.setBucketName(BUCKET);
+            summary.setKey(key);
+            result.getObjectSummaries().add(summary);
+        }
+        result.setNextContinuationToken(nextContinuationToken);
+        result.setTruncated(nextContinuationToken != null);
+        return result;
+    }
+
+    private static AuditLog event(String eventId, String sourceService) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        auditLog.setSourceService(sourceService);
+        return auditLog;
+    }
+}
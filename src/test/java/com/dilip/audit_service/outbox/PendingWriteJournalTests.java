@@ -0,0 +1,139 @@
+package com.dilip.audit_service.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dilip.audit_service.config.OutboxConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class PendingWriteJournalTests {
+
+    private static final String TIER = "s3";
+    private static final String JOURNAL_FILE = "pending-writes.ndjson";
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    @DisplayName("itShouldReplayOutstandingWrites_whenReopened")
+    public void itShouldReplayOutstandingWrites_whenReopened() throws Exception {
+        PendingWriteJournal journal = open(10);
+        PendingWrite first = PendingWrite.of(event("1"), TIER, "timed out");
+        PendingWrite second = PendingWrite.of(event("2"), TIER, "timed out");
+        journal.record(List.of(first, second));
+        journal.complete(List.of(first));
+        journal.close();
+
+        PendingWriteJournal reopened = open(10);
+        assertThat(reopened.report().outstanding()).isEqualTo(1);
+        assertThat(reopened.due(TIER, Instant.now(), 10))
+                .extracting(write -> write.event().getEventId())
+                .containsExactly("2");
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("itShouldIgnoreTornLastLine_whenReopenedAfterCrash")
+    public void itShouldIgnoreTornLastLine_whenReopenedAfterCrash() throws Exception {
+        PendingWriteJournal journal = open(10);
+        journal.record(List.of(PendingWrite.of(event("1"), TIER, "timed out")));
+        journal.close();
+        Files.writeString(directory.resolve(JOURNAL_FILE), "{\"op\":\"put\",\"tier\":\"s3\",\"even",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        PendingWriteJournal reopened = open(10);
+        reopened.record(List.of(PendingWrite.of(event("2"), TIER, "timed out")));
+        reopened.close();
+
+        PendingWriteJournal recovered = open(10);
+        assertThat(recovered.due(TIER, Instant.now(), 10))
+                .extracting(write -> write.event().getEventId())
+                .containsExactlyInAnyOrder("1", "2");
+        recovered.close();
+    }
+
+    @Test
+    @DisplayName("itShouldRewriteOutstandingEntriesOnly_whenMostLinesAreObsolete")
+    public void itShouldRewriteOutstandingEntriesOnly_whenMostLinesAreObsolete() throws Exception {
+        PendingWriteJournal journal = open(10);
+        List<PendingWrite> writes = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            writes.add(PendingWrite.of(event(Integer.toString(i)), TIER, "timed out"));
+        }
+        journal.record(writes);
+        journal.complete(writes.subList(0, 1400));
+
+        assertThat(Files.readAllLines(directory.resolve(JOURNAL_FILE))).hasSize(100);
+        assertThat(journal.due(TIER, Instant.now(), 1000)).hasSize(100);
+        journal.close();
+
+        PendingWriteJournal reopened = open(10);
+        assertThat(reopened.report().outstanding()).isEqualTo(100);
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("itShouldReadNonResidentWritesFromJournal_whenDue")
+    public void itShouldReadNonResidentWritesFromJournal_whenDue() throws Exception {
+        PendingWriteJournal journal = open(1);
+        journal.record(List.of(
+                PendingWrite.of(event("1"), TIER, "timed out"),
+                PendingWrite.of(event("2"), TIER, "timed out"),
+                PendingWrite.of(event("3"), TIER, "timed out")));
+
+        assertThat(journal.due(TIER, Instant.now(), 10))
+                .extracting(write -> write.event().getEventId())
+                .containsExactlyInAnyOrder("1", "2", "3");
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("itShouldNotReturnRescheduledWrites_untilTheirNextAttempt")
+    public void itShouldNotReturnRescheduledWrites_untilTheirNextAttempt() throws Exception {
+        PendingWriteJournal journal = open(10);
+        PendingWrite first = PendingWrite.of(event("1"), TIER, "timed out");
+        journal.record(List.of(first, PendingWrite.of(event("2"), TIER, "timed out")));
+        journal.reschedule(Map.of(first, "still failing"));
+
+        Instant now = Instant.now();
+        assertThat(journal.due(TIER, now, 10))
+                .extracting(write -> write.event().getEventId())
+                .containsExactly("2");
+        assertThat(journal.due(TIER, now.plusSeconds(60), 10))
+                .extracting(write -> write.event().getEventId())
+                .containsExactly("2", "1");
+        assertThat(journal.due("elasticsearch", now, 10)).isEmpty();
+        journal.close();
+    }
+
+    private PendingWriteJournal open(int maxResidentWrites) throws Exception {
+        OutboxConfig config = new OutboxConfig();
+        config.setDirectory(directory.toString());
+        config.setMaxResidentWrites(maxResidentWrites);
+        PendingWriteJournal journal = new PendingWriteJournal(config, mapper);
+        journal.open();
+        return journal;
+    }
+
+    private static AuditLog event(String eventId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        auditLog.setSourceService("user-service");
+        return auditLog;
+    }
+}
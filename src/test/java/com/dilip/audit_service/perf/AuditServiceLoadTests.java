@@ -0,0 +1,289 @@
+package com.dilip.audit_service.perf;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.perf.PerfReport.GcSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.stereotype.Repository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.convention.TestBean;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Load tests of the ingest and query paths against in-process stand-ins: an embedded Kafka broker, an in-memory
+ * transient store with injected latency in place of Elasticsearch and an in-memory S3 client behind the real
+ * cold storage repository. Tagged {@code perf} and excluded from the default build, run them with
+ * {@code mvn -Pperf test}.
+ * <p>
+ * Every scenario warms up, then offers {@code perf.rate} requests per second for {@code perf.duration} seconds
+ * and publishes a {@link PerfReport}. Knobs (system properties): {@code perf.rate}, {@code perf.duration},
+ * {@code perf.warmup}, {@code perf.concurrency}, {@code perf.bulkRate}, {@code perf.bulkSize}, {@code perf.seedEvents},
+ * {@code perf.transientLatencyMs}, {@code perf.coldStorageLatencyMs}, {@code perf.maxP99Ms} (fails the scenario
+ * when exceeded) and {@code perf.baseline} (directory of an earlier run's results to compare with).
+ */
+@Tag("perf")
+@ActiveProfiles({"dev", "perf"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EmbeddedKafka(partitions = 3, topics = AuditServiceLoadTests.TOPIC,
+        bootstrapServersProperty = "spring.kafka.bootstrap-servers")
+public class AuditServiceLoadTests {
+
+    static final String TOPIC = "audit-events";
+
+    private static final int RATE = Integer.getInteger("perf.rate", 500);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("perf.duration", 30));
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("perf.warmup", 5));
+    private static final int CONCURRENCY = Integer.getInteger("perf.concurrency", 256);
+    private static final int BULK_RATE = Integer.getInteger("perf.bulkRate", 20);
+    private static final int BULK_SIZE = Integer.getInteger("perf.bulkSize", 100);
+    private static final int SEED_EVENTS = Integer.getInteger("perf.seedEvents", 50_000);
+    private static final Duration TRANSIENT_LATENCY =
+            Duration.ofMillis(Long.getLong("perf.transientLatencyMs", 2));
+    private static final Duration COLD_STORAGE_LATENCY =
+            Duration.ofMillis(Long.getLong("perf.coldStorageLatencyMs", 20));
+    private static final String ADMIN_AUTHORIZATION = "Basic "
+            + Base64.getEncoder().encodeToString("admin:adminpass".getBytes(StandardCharsets.UTF_8));
+
+    @TestBean(name = "elasticsearch")
+    private TransientRepository transientRepository;
+
+    @TestBean(name = "amazonS3")
+    private InMemoryAmazonS3 amazonS3;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    static TransientRepository transientRepository() {
+        return new TransientRepository(TRANSIENT_LATENCY);
+    }
+
+    static InMemoryAmazonS3 amazonS3() {
+        return new InMemoryAmazonS3(COLD_STORAGE_LATENCY);
+    }
+
+    @DynamicPropertySource
+    static void localDirectories(DynamicPropertyRegistry registry) throws IOException {
+        Path root = Files.createTempDirectory("audit-service-perf");
+        registry.add("db.coldStorage.segment.spoolDirectory", () -> root.resolve("spool").toString());
+        registry.add("audit.outbox.directory", () -> root.resolve("outbox").toString());
+        registry.add("audit.wal.directory", () -> root.resolve("wal").toString());
+    }
+
+    @Test
+    @DisplayName("itShouldReportRestIngestThroughputAndLatency")
+    public void itShouldReportRestIngestThroughputAndLatency() throws Exception {
+        PerfReport report = measure("rest-ingest", RATE, scheduledAt -> {
+            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri("/api/audit/logs"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(event())))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            return Integer.toString(response.statusCode());
+        });
+
+        assertThat(report.outcomes()).containsKey("201");
+    }
+
+    @Test
+    @DisplayName("itShouldReportRestBulkIngestThroughputAndLatency")
+    public void itShouldReportRestBulkIngestThroughputAndLatency() throws Exception {
+        // perf.bulkRate requests per second, each carrying perf.bulkSize events
+        PerfReport report = measure("rest-bulk-ingest", BULK_RATE, scheduledAt -> {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < BULK_SIZE; i++) {
+                body.append(objectMapper.writeValueAsString(event())).append('\n');
+            }
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri("/api/audit/logs/_bulk"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            boolean errors = response.statusCode() == 200
+                    && objectMapper.readTree(response.body()).path("errors").asBoolean();
+            return response.statusCode() + (errors ? "-with-errors" : "");
+        });
+
+        assertThat(report.outcomes()).containsKey("200");
+    }
+
+    @Test
+    @DisplayName("itShouldReportKafkaIngestEndToEndLatency")
+    public void itShouldReportKafkaIngestEndToEndLatency() throws Exception {
+        // latency from the scheduled send until the listener stored the event in the transient tier
+        Map<String, Long> inFlight = new ConcurrentHashMap<>();
+        AtomicReference<LatencyRecorder> endToEnd = new AtomicReference<>();
+        transientRepository.onStored(auditLog -> {
+            Long scheduledAt = inFlight.remove(auditLog.getEventId());
+            if (scheduledAt != null) {
+                endToEnd.get().record(System.nanoTime() - scheduledAt, "stored");
+            }
+        });
+        LoadGenerator.Request send = scheduledAt -> {
+            AuditLog auditLog = event();
+            inFlight.put(auditLog.getEventId(), scheduledAt);
+            kafkaTemplate.send(TOPIC, auditLog.getEventId(), objectMapper.writeValueAsString(auditLog))
+                    .whenComplete((result, e) -> {
+                        if (e != null && inFlight.remove(auditLog.getEventId()) != null) {
+                            endToEnd.get().count("send-failed");
+                        }
+                    });
+            return "sent";
+        };
+        LoadGenerator generator = new LoadGenerator(RATE, CONCURRENCY);
+
+        try {
+            endToEnd.set(new LatencyRecorder(capacity(RATE, WARMUP)));
+            generator.run(WARMUP, send, new LatencyRecorder(capacity(RATE, WARMUP)));
+            awaitDrained(inFlight);
+
+            LatencyRecorder recorder = new LatencyRecorder(capacity(RATE, DURATION));
+            endToEnd.set(recorder);
+            GcSnapshot before = GcSnapshot.take();
+            long start = System.nanoTime();
+            int issued = generator.run(DURATION, send, new LatencyRecorder(capacity(RATE, DURATION)));
+            awaitDrained(inFlight);
+            PerfReport report = PerfReport.of("kafka-ingest", RATE, issued, recorder,
+                    Duration.ofNanos(System.nanoTime() - start), before, GcSnapshot.take());
+            publish(report);
+
+            assertThat(inFlight).as("events not stored within a minute").isEmpty();
+        } finally {
+            transientRepository.onStored(auditLog -> { });
+        }
+    }
+
+    @Test
+    @DisplayName("itShouldReportHotTierQueryThroughputAndLatency")
+    public void itShouldReportHotTierQueryThroughputAndLatency() throws Exception {
+        List<AuditLog> seed = new ArrayList<>(SEED_EVENTS);
+        for (int i = 0; i < SEED_EVENTS; i++) {
+            seed.add(event());
+        }
+        transientRepository.saveAll(seed);
+        // within the hot retention, so the router sends it to the transient tier only
+        String query = objectMapper.writeValueAsString(Map.of(
+                "eventType", "UserUpdated",
+                "startTime", Instant.now().minus(Duration.ofHours(1)).toString(),
+                "endTime", Instant.now().plus(Duration.ofHours(1)).toString(),
+                "size", 50));
+
+        PerfReport report = measure("hot-query", RATE, scheduledAt -> {
+            HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri("/api/audit/query"))
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", ADMIN_AUTHORIZATION)
+                    .method("GET", HttpRequest.BodyPublishers.ofString(query))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            return Integer.toString(response.statusCode());
+        });
+
+        assertThat(report.outcomes()).containsKey("200");
+    }
+
+    private PerfReport measure(String scenario, int rate, LoadGenerator.Request request) throws Exception {
+        LoadGenerator generator = new LoadGenerator(rate, CONCURRENCY);
+        generator.run(WARMUP, request, new LatencyRecorder(capacity(rate, WARMUP)));
+
+        LatencyRecorder recorder = new LatencyRecorder(capacity(rate, DURATION));
+        GcSnapshot before = GcSnapshot.take();
+        long start = System.nanoTime();
+        int issued = generator.run(DURATION, request, recorder);
+        PerfReport report = PerfReport.of(scenario, rate, issued, recorder,
+                Duration.ofNanos(System.nanoTime() - start), before, GcSnapshot.take());
+        publish(report);
+        return report;
+    }
+
+    private void publish(PerfReport report) throws IOException {
+        report.publish();
+        Long maxP99Ms = Long.getLong("perf.maxP99Ms");
+        if (maxP99Ms != null) {
+            assertThat(report.p99Ms()).as("p99 of " + report.scenario()).isLessThanOrEqualTo(maxP99Ms);
+        }
+    }
+
+    private static void awaitDrained(Map<String, Long> inFlight) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+        while (!inFlight.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static int capacity(int rate, Duration duration) {
+        return (int) (rate * duration.toSeconds()) + 1;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static AuditLog event() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(UUID.randomUUID().toString());
+        auditLog.setTimestamp(Instant.now());
+        auditLog.setSourceService("UserService");
+        auditLog.setEventType(random.nextBoolean() ? "UserCreated" : "UserUpdated");
+        auditLog.setEntityType("User");
+        auditLog.setEntityId(Integer.toString(random.nextInt(100_000)));
+
+        AuditLog.ChangedBy changedBy = new AuditLog.ChangedBy();
+        changedBy.setUserId("user-" + random.nextInt(1000));
+        changedBy.setUsername(changedBy.getUserId());
+        changedBy.setRoles(List.of("USER"));
+        auditLog.setChangedBy(changedBy);
+
+        AuditLog.ChangeDetail change = new AuditLog.ChangeDetail();
+        change.setOldValue("john.doe@example.com");
+        change.setNewValue("john.smith@example.com");
+        auditLog.setChangeSummary(Map.of("email", change));
+
+        AuditLog.Metadata metadata = new AuditLog.Metadata();
+        metadata.setIpAddress("192.168.1." + random.nextInt(255));
+        metadata.setUserAgent("Mozilla/5.0");
+        auditLog.setMetadata(metadata);
+        return auditLog;
+    }
+
+    // registered under the Elasticsearch repository's name, AuditRepositoryFactory resolves tiers by it
+    @Repository("elasticsearch")
+    static class TransientRepository extends InMemoryAuditRepository {
+        TransientRepository(Duration latency) {
+            super(latency);
+        }
+    }
+}
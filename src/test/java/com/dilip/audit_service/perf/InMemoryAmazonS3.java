@@ -0,0 +1,162 @@
+package com.dilip.audit_service.perf;
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in for the S3 client, covering the calls made by the cold storage repository, segment writer
+ * and scan engine with S3 listing semantics (prefix, delimiter, start-after, paging). Every call waits
+ * {@code latency} to model the network round trip.
+ */
+class InMemoryAmazonS3 extends AbstractAmazonS3 {
+
+    // continuation tokens are the last returned key; this sorts after every key below a common prefix
+    private static final char AFTER_COMMON_PREFIX = Character.MAX_VALUE;
+
+    private final Map<String, NavigableMap<String, byte[]>> buckets = new ConcurrentHashMap<>();
+    private final Duration latency;
+
+    InMemoryAmazonS3(Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public boolean doesObjectExist(String bucketName, String objectName) {
+        roundTrip();
+        return bucket(bucketName).containsKey(objectName);
+    }
+
+    @Override
+    public S3Object getObject(String bucketName, String key) {
+        roundTrip();
+        byte[] content = bucket(bucketName).get(key);
+        if (content == null) {
+            AmazonS3Exception notFound = new AmazonS3Exception("The specified key does not exist.");
+            notFound.setStatusCode(404);
+            notFound.setErrorCode("NoSuchKey");
+            throw notFound;
+        }
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentLength(content.length);
+        S3Object object = new S3Object();
+        object.setBucketName(bucketName);
+        object.setKey(key);
+        object.setObjectMetadata(metadata);
+        object.setObjectContent(new ByteArrayInputStream(content));
+        return object;
+    }
+
+    @Override
+    public PutObjectResult putObject(PutObjectRequest request) {
+        byte[] content;
+        try {
+            if (request.getFile() != null) {
+                content = Files.readAllBytes(request.getFile().toPath());
+            } else {
+                try (InputStream in = request.getInputStream()) {
+                    content = in.readAllBytes();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return put(request.getBucketName(), request.getKey(), content);
+    }
+
+    @Override
+    public PutObjectResult putObject(String bucketName, String key, String content) {
+        return put(bucketName, key, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public ListObjectsV2Result listObjectsV2(ListObjectsV2Request request) {
+        roundTrip();
+        String prefix = request.getPrefix() == null ? "" : request.getPrefix();
+        String delimiter = request.getDelimiter();
+        String after = request.getContinuationToken() != null ? request.getContinuationToken() : request.getStartAfter();
+        int maxKeys = request.getMaxKeys() == null ? 1000 : request.getMaxKeys();
+
+        NavigableMap<String, byte[]> objects = bucket(request.getBucketName());
+        NavigableMap<String, byte[]> candidates = after == null || after.compareTo(prefix) < 0
+                ? objects.tailMap(prefix, true)
+                : objects.tailMap(after, false);
+
+        ListObjectsV2Result result = new ListObjectsV2Result();
+        result.setBucketName(request.getBucketName());
+        result.setPrefix(request.getPrefix());
+        result.setDelimiter(delimiter);
+        result.setMaxKeys(maxKeys);
+        Set<String> commonPrefixes = new LinkedHashSet<>();
+        int returned = 0;
+        String lastReturned = null;
+        for (Map.Entry<String, byte[]> entry : candidates.entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                break;
+            }
+            int delimiterAt = delimiter == null || delimiter.isEmpty() ? -1 : key.indexOf(delimiter, prefix.length());
+            String commonPrefix = delimiterAt < 0 ? null : key.substring(0, delimiterAt + delimiter.length());
+            if (commonPrefix != null && commonPrefixes.contains(commonPrefix)) {
+                continue;
+            }
+            if (returned == maxKeys) {
+                result.setTruncated(true);
+                result.setNextContinuationToken(lastReturned);
+                break;
+            }
+            if (commonPrefix != null) {
+                commonPrefixes.add(commonPrefix);
+                lastReturned = commonPrefix + AFTER_COMMON_PREFIX;
+            } else {
+                S3ObjectSummary summary = new S3ObjectSummary();
+                summary.setBucketName(request.getBucketName());
+                summary.setKey(key);
+                summary.setSize(entry.getValue().length);
+                result.getObjectSummaries().add(summary);
+                lastReturned = key;
+            }
+            returned++;
+        }
+        result.setCommonPrefixes(commonPrefixes.stream().toList());
+        result.setKeyCount(returned);
+        return result;
+    }
+
+    private PutObjectResult put(String bucketName, String key, byte[] content) {
+        roundTrip();
+        bucket(bucketName).put(key, content);
+        return new PutObjectResult();
+    }
+
+    private NavigableMap<String, byte[]> bucket(String bucketName) {
+        return buckets.computeIfAbsent(bucketName, name -> new ConcurrentSkipListMap<>());
+    }
+
+    private void roundTrip() {
+        if (!latency.isZero()) {
+            LockSupport.parkNanos(latency.toNanos());
+        }
+    }
+}
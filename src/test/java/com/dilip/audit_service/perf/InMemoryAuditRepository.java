@@ -0,0 +1,142 @@
+package com.dilip.audit_service.perf;
+
+import com.dilip.audit_service.common.AuditSearchPage;
+import com.dilip.audit_service.common.BatchLookupResult;
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.common.DeletionResult;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.repository.AuditLogMatcher;
+import com.dilip.audit_service.data.repository.AuditRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link AuditRepository} backed by a map, standing in for Elasticsearch in the load tests. Every call waits
+ * {@code latency} (one round trip per call, bulk writes included). Searches apply {@link AuditLogMatcher} and
+ * return the newest events first; there is no user scoping, the load tests query as admin.
+ */
+class InMemoryAuditRepository implements AuditRepository {
+
+    private static final Comparator<AuditLog> NEWEST_FIRST = Comparator.comparing(AuditLog::getTimestamp,
+            Comparator.nullsLast(Comparator.<Instant>reverseOrder()));
+
+    private final Map<String, AuditLog> events = new ConcurrentHashMap<>();
+    private final Duration latency;
+    private volatile Consumer<AuditLog> storedListener = auditLog -> { };
+
+    InMemoryAuditRepository(Duration latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Called for every event once it is stored, used to measure end-to-end ingest latency.
+     */
+    void onStored(Consumer<AuditLog> listener) {
+        this.storedListener = listener;
+    }
+
+    @Override
+    public void save(AuditLog auditLog) {
+        roundTrip();
+        store(auditLog);
+    }
+
+    @Override
+    public BulkWriteResult saveAll(List<AuditLog> auditLogs) {
+        roundTrip();
+        auditLogs.forEach(this::store);
+        return BulkWriteResult.success(auditLogs.size());
+    }
+
+    @Override
+    public List<AuditLog> findAll() {
+        roundTrip();
+        return new ArrayList<>(events.values());
+    }
+
+    @Override
+    public List<AuditLog> findByUserId(String userId) {
+        roundTrip();
+        return events.values().stream()
+                .filter(auditLog -> auditLog.getChangedBy() != null
+                        && userId.equals(auditLog.getChangedBy().getUserId()))
+                .toList();
+    }
+
+    @Override
+    public Optional<AuditLog> findByEventId(String eventId) {
+        roundTrip();
+        return Optional.ofNullable(events.get(eventId));
+    }
+
+    @Override
+    public BatchLookupResult findByEventIds(List<String> eventIds) {
+        roundTrip();
+        List<AuditLog> found = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String eventId : eventIds) {
+            AuditLog auditLog = events.get(eventId);
+            if (auditLog != null) {
+                found.add(auditLog);
+            } else {
+                missing.add(eventId);
+            }
+        }
+        return new BatchLookupResult(found, missing);
+    }
+
+    @Override
+    public List<AuditLog> advancedSearch(AuditSearchRequest request) {
+        roundTrip();
+        return matching(request)
+                .sorted(NEWEST_FIRST)
+                .skip((long) request.getPage() * request.getSize())
+                .limit(request.getSize())
+                .toList();
+    }
+
+    @Override
+    public AuditSearchPage searchPage(AuditSearchRequest request) {
+        return new AuditSearchPage(advancedSearch(request), null);
+    }
+
+    @Override
+    public Stream<AuditLog> streamSearch(AuditSearchRequest request) {
+        roundTrip();
+        return matching(request).sorted(NEWEST_FIRST);
+    }
+
+    @Override
+    public DeletionResult deleteEvent(String eventId) {
+        roundTrip();
+        return events.remove(eventId) != null
+                ? new DeletionResult.DeletionSuccess(1)
+                : new DeletionResult.DeletionNotFound("event not found: " + eventId);
+    }
+
+    private Stream<AuditLog> matching(AuditSearchRequest request) {
+        return events.values().stream().filter(AuditLogMatcher.of(request));
+    }
+
+    private void store(AuditLog auditLog) {
+        events.put(auditLog.getEventId(), auditLog);
+        storedListener.accept(auditLog);
+    }
+
+    private void roundTrip() {
+        if (!latency.isZero()) {
+            LockSupport.parkNanos(latency.toNanos());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.dilip.audit_service.perf;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe recorder of operation latencies and outcomes (HTTP status, exception type...). Latencies are kept
+ * raw in a preallocated array, so percentiles are exact; samples beyond the capacity are counted but dropped.
+ */
+class LatencyRecorder {
+
+    private final long[] latencies;
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    LatencyRecorder(int capacity) {
+        this.latencies = new long[capacity];
+    }
+
+    void record(long latencyNanos, String outcome) {
+        int index = recorded.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = latencyNanos;
+        }
+        count(outcome);
+    }
+
+    /**
+     * Counts an outcome that has no meaningful latency, e.g. a request that failed before reaching the service.
+     */
+    void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    int count() {
+        return recorded.get();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+
+    /**
+     * Latencies in ascending order, for percentile computation once recording has stopped.
+     */
+    long[] sorted() {
+        long[] sorted = Arrays.copyOf(latencies, Math.min(recorded.get(), latencies.length));
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,67 @@
+package com.dilip.audit_service.perf;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are issued on a fixed schedule regardless of how fast earlier ones complete,
+ * and latency is measured from the scheduled start rather than the actual one. A slow service therefore shows
+ * up as queueing in the latency instead of silently lowering the offered rate (coordinated omission).
+ */
+class LoadGenerator {
+
+    /**
+     * One request; returns the outcome to record (e.g. the HTTP status). {@code scheduledAtNanos} is the
+     * {@link System#nanoTime()} the request was due at, for requests that complete asynchronously.
+     */
+    @FunctionalInterface
+    interface Request {
+        String send(long scheduledAtNanos) throws Exception;
+    }
+
+    private final int ratePerSecond;
+    private final int concurrency;
+
+    LoadGenerator(int ratePerSecond, int concurrency) {
+        this.ratePerSecond = ratePerSecond;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Issues {@code ratePerSecond * duration} requests and waits for all of them to complete. Returns the number
+     * of requests issued.
+     */
+    int run(Duration duration, Request request, LatencyRecorder recorder) throws InterruptedException {
+        int total = (int) (ratePerSecond * duration.toMillis() / 1000);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < total; i++) {
+                long scheduledAt = start + i * intervalNanos;
+                long wait = scheduledAt - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                executor.execute(() -> {
+                    String outcome;
+                    try {
+                        outcome = request.send(scheduledAt);
+                    } catch (Exception e) {
+                        outcome = e.getClass().getSimpleName();
+                    }
+                    recorder.record(System.nanoTime() - scheduledAt, outcome);
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            executor.shutdownNow();
+        }
+        return total;
+    }
+}
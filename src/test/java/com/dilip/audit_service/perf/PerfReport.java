@@ -0,0 +1,96 @@
+package com.dilip.audit_service.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Result of one load test scenario: throughput, latency percentiles (in milliseconds) and GC pressure over the
+ * measurement window. Written to {@code target/perf/<scenario>.json}; when {@code -Dperf.baseline=<dir>} points
+ * to the results of an earlier run, the differences to it are printed as well.
+ */
+record PerfReport(String scenario, int targetRate, int issued, Map<String, Long> outcomes, double seconds,
+                  double throughput, double p50Ms, double p99Ms, double p999Ms, double maxMs,
+                  long gcCount, long gcTimeMs, double allocatedMbPerSecond) {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final Path RESULTS = Paths.get("target", "perf");
+
+    static PerfReport of(String scenario, int targetRate, int issued, LatencyRecorder recorder,
+                         Duration elapsed, GcSnapshot before, GcSnapshot after) {
+        long[] sorted = recorder.sorted();
+        double seconds = elapsed.toNanos() / 1e9;
+        return new PerfReport(scenario, targetRate, issued, recorder.outcomes(), seconds,
+                recorder.count() / seconds,
+                millis(LatencyRecorder.percentile(sorted, 50)),
+                millis(LatencyRecorder.percentile(sorted, 99)),
+                millis(LatencyRecorder.percentile(sorted, 99.9)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+                after.count() - before.count(),
+                after.timeMs() - before.timeMs(),
+                (after.allocatedBytes() - before.allocatedBytes()) / 1048576.0 / seconds);
+    }
+
+    void publish() throws IOException {
+        System.out.printf("%n[perf] %-16s rate=%d/s issued=%d throughput=%.1f/s p50=%.2fms p99=%.2fms "
+                        + "p999=%.2fms max=%.2fms gc=%d (%dms) alloc=%.1fMB/s outcomes=%s%n",
+                scenario, targetRate, issued, throughput, p50Ms, p99Ms, p999Ms, maxMs, gcCount, gcTimeMs,
+                allocatedMbPerSecond, outcomes);
+
+        String baselineDir = System.getProperty("perf.baseline");
+        if (baselineDir != null) {
+            Path baselineFile = Paths.get(baselineDir, scenario + ".json");
+            if (Files.exists(baselineFile)) {
+                PerfReport baseline = MAPPER.readValue(baselineFile.toFile(), PerfReport.class);
+                System.out.printf("[perf] %-16s vs baseline: throughput %+.1f%% p50 %+.1f%% p99 %+.1f%% "
+                                + "p999 %+.1f%% alloc %+.1f%%%n",
+                        scenario, change(baseline.throughput, throughput), change(baseline.p50Ms, p50Ms),
+                        change(baseline.p99Ms, p99Ms), change(baseline.p999Ms, p999Ms),
+                        change(baseline.allocatedMbPerSecond, allocatedMbPerSecond));
+            }
+        }
+
+        Files.createDirectories(RESULTS);
+        MAPPER.writeValue(RESULTS.resolve(scenario + ".json").toFile(), this);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double change(double baseline, double current) {
+        return baseline == 0 ? 0 : (current - baseline) / baseline * 100;
+    }
+
+    /**
+     * GC counters and the bytes allocated so far by the live threads, at one point in time. Allocations of
+     * threads that ended between two snapshots are not counted.
+     */
+    record GcSnapshot(long count, long timeMs, long allocatedBytes) {
+
+        static GcSnapshot take() {
+            long count = 0;
+            long timeMs = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                timeMs += Math.max(0, gc.getCollectionTime());
+            }
+            long allocated = 0;
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+                // -1 for threads that ended since their ids were listed
+                for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                    allocated += Math.max(0, bytes);
+                }
+            }
+            return new GcSnapshot(count, timeMs, allocated);
+        }
+    }
+}
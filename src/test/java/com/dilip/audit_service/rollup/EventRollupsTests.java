@@ -0,0 +1,202 @@
+package com.dilip.audit_service.rollup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.config.RollupConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class EventRollupsTests {
+
+    private final RollupStore rollupStore = mock(RollupStore.class);
+    private final RollupConfig config = new RollupConfig();
+    private final EventRollups eventRollups = new EventRollups(rollupStore, config);
+    // deltas of every flush, in order
+    private final List<Map<RollupKey, Long>> flushes = new ArrayList<>();
+    private final Instant timestamp = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(Duration.ofMinutes(30));
+
+    @BeforeEach
+    public void stubStore() {
+        when(rollupStore.add(anyMap())).thenAnswer(invocation -> {
+            flushes.add(Map.copyOf(invocation.getArgument(0)));
+            return Set.of();
+        });
+    }
+
+    @Test
+    @DisplayName("itShouldFlushPerMinuteAndPerHourCounts_whenEventsAreRecorded")
+    public void itShouldFlushPerMinuteAndPerHourCounts_whenEventsAreRecorded() {
+        eventRollups.record(event("UserCreated"));
+        eventRollups.record(event("UserCreated"));
+        eventRollups.record(event("UserDeleted"));
+
+        eventRollups.flush();
+
+        assertThat(flushes).containsExactly(Map.of(
+                key(RollupResolution.MINUTE, "UserCreated"), 2L,
+                key(RollupResolution.HOUR, "UserCreated"), 2L,
+                key(RollupResolution.MINUTE, "UserDeleted"), 1L,
+                key(RollupResolution.HOUR, "UserDeleted"), 1L));
+    }
+
+    @Test
+    @DisplayName("itShouldFlushOnlyTheChangeSinceTheLastFlush_whenCountersKeepChanging")
+    public void itShouldFlushOnlyTheChangeSinceTheLastFlush_whenCountersKeepChanging() {
+        eventRollups.record(event("UserCreated"));
+        eventRollups.record(event("UserCreated"));
+        eventRollups.flush();
+
+        eventRollups.forget(event("UserCreated"));
+        eventRollups.flush();
+
+        assertThat(flushes).hasSize(2);
+        assertThat(flushes.get(1)).containsEntry(key(RollupResolution.HOUR, "UserCreated"), -1L);
+    }
+
+    @Test
+    @DisplayName("itShouldFlushTheDeltaAgain_whenItsUpdateFailed")
+    public void itShouldFlushTheDeltaAgain_whenItsUpdateFailed() {
+        RollupKey hour = key(RollupResolution.HOUR, "UserCreated");
+        doAnswer(invocation -> {
+            flushes.add(Map.copyOf(invocation.getArgument(0)));
+            return flushes.size() == 1 ? Set.of(hour) : Set.of();
+        }).when(rollupStore).add(anyMap());
+        eventRollups.record(event("UserCreated"));
+        eventRollups.flush();
+
+        eventRollups.record(event("UserCreated"));
+        eventRollups.flush();
+
+        assertThat(flushes.get(1)).containsEntry(hour, 2L).containsEntry(key(RollupResolution.MINUTE, "UserCreated"), 1L);
+    }
+
+    @Test
+    @DisplayName("itShouldFlushTheDeltaAgain_whenTheBulkRequestFailed")
+    public void itShouldFlushTheDeltaAgain_whenTheBulkRequestFailed() {
+        doThrow(new IllegalStateException("rollup index unavailable"))
+                .doAnswer(invocation -> {
+                    flushes.add(Map.copyOf(invocation.getArgument(0)));
+                    return Set.of();
+                })
+                .when(rollupStore).add(anyMap());
+        eventRollups.record(event("UserCreated"));
+        eventRollups.flush();
+
+        eventRollups.flush();
+
+        assertThat(flushes).containsExactly(Map.of(
+                key(RollupResolution.MINUTE, "UserCreated"), 1L,
+                key(RollupResolution.HOUR, "UserCreated"), 1L));
+    }
+
+    @Test
+    @DisplayName("itShouldDropTheCounter_whenItDidNotChangeForAFlushInterval")
+    public void itShouldDropTheCounter_whenItDidNotChangeForAFlushInterval() {
+        eventRollups.record(event("UserCreated"));
+        eventRollups.flush();
+        eventRollups.flush();
+        eventRollups.flush();
+
+        eventRollups.record(event("UserCreated"));
+        eventRollups.flush();
+
+        assertThat(flushes).hasSize(2);
+        assertThat(flushes.get(1)).containsEntry(key(RollupResolution.HOUR, "UserCreated"), 1L);
+    }
+
+    @Test
+    @DisplayName("itShouldNotLoseChanges_whenTheyRaceWithDroppingIdleCounters")
+    public void itShouldNotLoseChanges_whenTheyRaceWithDroppingIdleCounters() throws Exception {
+        int threads = 4;
+        int changes = 20_000;
+        AtomicBoolean counting = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                // leaves the counter unchanged most of the time, so flushes keep dropping it
+                for (int i = 0; i < changes; i++) {
+                    eventRollups.record(event("UserCreated"));
+                    eventRollups.forget(event("UserCreated"));
+                }
+                eventRollups.record(event("UserCreated"));
+                done.countDown();
+            }).start();
+        }
+        Thread flusher = new Thread(() -> {
+            while (counting.get()) {
+                eventRollups.flush();
+            }
+        });
+        flusher.start();
+        done.await();
+        counting.set(false);
+        flusher.join();
+        eventRollups.flush();
+
+        Map<RollupKey, Long> total = new HashMap<>();
+        flushes.forEach(flush -> flush.forEach((key, delta) -> total.merge(key, delta, Long::sum)));
+        assertThat(total).containsEntry(key(RollupResolution.MINUTE, "UserCreated"), (long) threads)
+                .containsEntry(key(RollupResolution.HOUR, "UserCreated"), (long) threads);
+    }
+
+    @Test
+    @DisplayName("itShouldNotCountTheEvent_whenItsBucketHasExpired")
+    public void itShouldNotCountTheEvent_whenItsBucketHasExpired() {
+        AuditLog old = event("UserCreated");
+        old.setTimestamp(Instant.now().minus(Duration.ofDays(3)));
+
+        eventRollups.record(old);
+        eventRollups.flush();
+
+        // past the per-minute retention, within the per-hour one
+        assertThat(flushes).singleElement().satisfies(flush -> assertThat(flush.keySet())
+                .extracting(RollupKey::resolution).containsExactly(RollupResolution.HOUR));
+    }
+
+    @Test
+    @DisplayName("itShouldNeitherCountNorFlush_whenRollupsAreDisabled")
+    public void itShouldNeitherCountNorFlush_whenRollupsAreDisabled() {
+        config.setEnabled(false);
+
+        eventRollups.record(event("UserCreated"));
+        eventRollups.flush();
+        config.setEnabled(true);
+        eventRollups.flush();
+
+        verify(rollupStore, never()).add(anyMap());
+    }
+
+    private AuditLog event(String eventType) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId("1");
+        auditLog.setTimestamp(timestamp);
+        auditLog.setSourceService("user-service");
+        auditLog.setEventType(eventType);
+        auditLog.setEntityType("user");
+        return auditLog;
+    }
+
+    private RollupKey key(RollupResolution resolution, String eventType) {
+        return new RollupKey(resolution, resolution.bucketOf(timestamp), "user-service", eventType, "user");
+    }
+}
@@ -0,0 +1,171 @@
+package com.dilip.audit_service.rollup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.aggregations.Aggregate;
+import co.elastic.clients.elasticsearch._types.query_dsl.DateRangeQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.util.ObjectBuilder;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.data.repository.AuditIndexLayout;
+import com.dilip.audit_service.data.repository.AuditStatsRepository;
+import com.dilip.audit_service.services.UserContextService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.BulkFailureException;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.UpdateQuery;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class RollupStoreTests {
+
+    private static final UserContext ADMIN = new UserContext("admin123", "admin", List.of("ROLE_ADMIN"));
+    // events on both sides of every hour boundary of the ranges below
+    private static final List<Instant> EVENTS = List.of(
+            Instant.parse("2025-05-05T09:59:59.999Z"),
+            Instant.parse("2025-05-05T10:00:00Z"),
+            Instant.parse("2025-05-05T10:30:00Z"),
+            Instant.parse("2025-05-05T10:59:59.999Z"),
+            Instant.parse("2025-05-05T11:00:00Z"),
+            Instant.parse("2025-05-05T11:00:00.001Z"),
+            Instant.parse("2025-05-05T12:00:00Z"),
+            Instant.parse("2025-05-05T13:15:00Z"));
+
+    private final ElasticsearchOperations elasticsearchOperations = mock(ElasticsearchOperations.class);
+    private final ElasticsearchClient elasticsearchClient = mock(ElasticsearchClient.class);
+    private final UserContextService userContextService = mock(UserContextService.class);
+    private final RollupStore rollupStore = new RollupStore(elasticsearchOperations, elasticsearchClient);
+    private final AuditStatsRepository auditStatsRepository = new AuditStatsRepository(elasticsearchOperations,
+            userContextService);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void stubElasticsearch() throws IOException {
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(ADMIN));
+
+        // raw events: the total is the number of events in the compiled timestamp range
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(AuditLog.class), any(IndexCoordinates.class)))
+                .thenAnswer(invocation -> {
+                    DateRangeQuery range = range(invocation.<NativeQuery>getArgument(0).getQuery(), "timestamp");
+                    SearchHits<AuditLog> hits = mock(SearchHits.class);
+                    when(hits.getTotalHits()).thenReturn(EVENTS.stream().filter(t -> matches(range, t)).count());
+                    return hits;
+                });
+
+        // hourly rollups of the same events: the total is the sum of the buckets in the compiled bucket range
+        Map<Instant, Long> hours = EVENTS.stream().collect(Collectors.groupingBy(RollupResolution.HOUR::bucketOf,
+                TreeMap::new, Collectors.counting()));
+        when(elasticsearchClient.search(any(Function.class), eq(Void.class))).thenAnswer(invocation -> {
+            Function<SearchRequest.Builder, ObjectBuilder<SearchRequest>> search = invocation.getArgument(0);
+            DateRangeQuery range = range(search.apply(new SearchRequest.Builder()).build().query(), "bucket");
+            long total = hours.entrySet().stream()
+                    .filter(bucket -> matches(range, bucket.getKey()))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            SearchResponse<Void> response = mock(SearchResponse.class);
+            when(response.aggregations()).thenReturn(Map.of("total", Aggregate.of(a -> a.sum(s -> s.value(total)))));
+            return response;
+        });
+    }
+
+    @Test
+    @DisplayName("itShouldCountTheSameEventsAsTheRawStats_whenBothAnswerTheSameRange")
+    public void itShouldCountTheSameEventsAsTheRawStats_whenBothAnswerTheSameRange() throws IOException {
+        List<List<String>> ranges = List.of(
+                List.of("2025-05-05T10:00:00Z", "2025-05-05T11:00:00Z"),
+                List.of("2025-05-05T10:00:00Z", "2025-05-05T12:00:00Z"),
+                List.of("2025-05-05T11:00:00Z", "2025-05-05T13:00:00Z"),
+                List.of("2025-05-05T09:00:00Z", "2025-05-05T14:00:00Z"));
+
+        for (List<String> range : ranges) {
+            AuditSearchRequest request = new AuditSearchRequest();
+            request.setStartTime(range.get(0));
+            request.setEndTime(range.get(1));
+
+            long raw = auditStatsRepository.stats(request, "1h", 0).total();
+            long rollups = rollupStore.stats(request, "1h", RollupResolution.HOUR).total();
+
+            assertThat(rollups).as("events in [%s, %s)", range.get(0), range.get(1)).isEqualTo(raw);
+        }
+    }
+
+    @Test
+    @DisplayName("itShouldUpsertOneDocumentPerKey_whenAddingDeltas")
+    @SuppressWarnings("unchecked")
+    public void itShouldUpsertOneDocumentPerKey_whenAddingDeltas() {
+        RollupKey created = key("UserCreated");
+        RollupKey deleted = key("UserDeleted");
+
+        assertThat(rollupStore.add(Map.of(created, 3L, deleted, -1L))).isEmpty();
+
+        ArgumentCaptor<List<UpdateQuery>> updates = ArgumentCaptor.forClass(List.class);
+        verify(elasticsearchOperations).bulkUpdate(updates.capture(), eq(IndexCoordinates.of(AuditIndexLayout.ROLLUPS)));
+        assertThat(updates.getValue()).extracting(UpdateQuery::getId)
+                .containsExactlyInAnyOrder(created.documentId(), deleted.documentId());
+        UpdateQuery deletion = updates.getValue().stream()
+                .filter(update -> update.getId().equals(deleted.documentId()))
+                .findFirst()
+                .orElseThrow();
+        assertThat(deletion.getParams()).containsEntry("count", -1L);
+        // a count down of a document that does not exist yet does not create a negative count
+        assertThat(deletion.getUpsert()).containsEntry("count", 0L).containsEntry("eventType", "UserDeleted");
+    }
+
+    @Test
+    @DisplayName("itShouldReturnTheKeysOfTheFailedUpdates_whenTheBulkRequestPartiallyFailed")
+    public void itShouldReturnTheKeysOfTheFailedUpdates_whenTheBulkRequestPartiallyFailed() {
+        RollupKey created = key("UserCreated");
+        RollupKey deleted = key("UserDeleted");
+        doThrow(new BulkFailureException("1 of 2 updates failed", Map.of(deleted.documentId(),
+                new BulkFailureException.FailureDetails(429, "rejected execution"))))
+                .when(elasticsearchOperations).bulkUpdate(anyList(), any(IndexCoordinates.class));
+
+        assertThat(rollupStore.add(Map.of(created, 3L, deleted, 1L))).containsExactly(deleted);
+    }
+
+    private static RollupKey key(String eventType) {
+        return new RollupKey(RollupResolution.HOUR, Instant.parse("2025-05-05T10:00:00Z"), "user-service",
+                eventType, "user");
+    }
+
+    private static DateRangeQuery range(Query query, String field) {
+        return query.bool().filter().stream()
+                .filter(Query::isRange)
+                .map(filter -> filter.range().date())
+                .filter(range -> range.field().equals(field))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static boolean matches(DateRangeQuery range, Instant timestamp) {
+        return (range.gte() == null || !timestamp.isBefore(Instant.parse(range.gte())))
+                && (range.gt() == null || timestamp.isAfter(Instant.parse(range.gt())))
+                && (range.lte() == null || !timestamp.isAfter(Instant.parse(range.lte())))
+                && (range.lt() == null || timestamp.isBefore(Instant.parse(range.lt())));
+    }
+}
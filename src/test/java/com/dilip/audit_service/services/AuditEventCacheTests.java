@@ -0,0 +1,58 @@
+package com.dilip.audit_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dilip.audit_service.config.AuditCacheConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class AuditEventCacheTests {
+
+    @Test
+    @DisplayName("itShouldServeCachedEvent_whenPutBefore")
+    public void itShouldServeCachedEvent_whenPutBefore() {
+        AuditEventCache cache = cache(true);
+        cache.put(event("1"));
+
+        assertThat(cache.get("1")).map(AuditLog::getEventId).hasValue("1");
+        assertThat(cache.get("2")).isEmpty();
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("itShouldNotCacheDeletedEvent_whenALookupPutsItBackAfterTheDelete")
+    public void itShouldNotCacheDeletedEvent_whenALookupPutsItBackAfterTheDelete() {
+        AuditEventCache cache = cache(true);
+        cache.put(event("1"));
+
+        cache.markDeleted("1");
+        // a lookup that read the event before the delete completes afterwards
+        cache.put(event("1"));
+
+        assertThat(cache.get("1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("itShouldNeverCache_whenDisabled")
+    public void itShouldNeverCache_whenDisabled() {
+        AuditEventCache cache = cache(false);
+        cache.put(event("1"));
+
+        assertThat(cache.get("1")).isEmpty();
+    }
+
+    private static AuditEventCache cache(boolean enabled) {
+        AuditCacheConfig config = new AuditCacheConfig();
+        config.setEnabled(enabled);
+        return new AuditEventCache(config, new SimpleMeterRegistry());
+    }
+
+    private static AuditLog event(String eventId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        return auditLog;
+    }
+}
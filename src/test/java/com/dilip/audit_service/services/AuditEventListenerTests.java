@@ -0,0 +1,161 @@
+package com.dilip.audit_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.config.EventCodecConfig;
+import com.dilip.audit_service.config.KafkaConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.exception.TooManyRequestsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class AuditEventListenerTests {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private final AuditService auditService = mock(AuditService.class);
+    private final KafkaIngestThrottle kafkaIngestThrottle = mock(KafkaIngestThrottle.class);
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer = mock(DeadLetterPublishingRecoverer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuditEventListener listener = new AuditEventListener(auditService,
+            new AuditEventCodec(mapper, new EventCodecConfig()), kafkaIngestThrottle,
+            new IngestMetrics(meterRegistry), deadLetterRecoverer);
+
+    @Test
+    @DisplayName("itShouldReturnNormally_whenEveryEventOfTheBatchIsStored")
+    public void itShouldReturnNormally_whenEveryEventOfTheBatchIsStored() throws Exception {
+        when(auditService.saveAuditLogs(anyList())).thenReturn(BulkWriteResult.success(2));
+
+        listener.handleAuditEvents(List.of(record(0, event("1")), record(1, event("2"))));
+
+        verify(auditService).saveAuditLogs(List.of(event("1"), event("2")));
+        assertThat(meterRegistry.counter("audit.ingest.events", "source", "kafka", "outcome", "stored").count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("itShouldFailTheBatch_whenAnyEventIsNotStored")
+    public void itShouldFailTheBatch_whenAnyEventIsNotStored() throws Exception {
+        // throwing keeps the container from committing the batch's offsets, the whole batch is redelivered
+        when(auditService.saveAuditLogs(anyList()))
+                .thenReturn(new BulkWriteResult(2, Map.of("2", "elasticsearch write timed out after PT5S")));
+
+        assertThatThrownBy(() -> listener.handleAuditEvents(List.of(record(0, event("1")), record(1, event("2")))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("1 of 2");
+        assertThat(meterRegistry.counter("audit.ingest.events", "source", "kafka", "outcome", "failed").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("itShouldPauseConsumptionAndFailTheBatch_whenStorageIsSaturated")
+    public void itShouldPauseConsumptionAndFailTheBatch_whenStorageIsSaturated() throws Exception {
+        when(auditService.saveAuditLogs(anyList()))
+                .thenThrow(new TooManyRequestsException("saturated", Duration.ofSeconds(1)));
+
+        assertThatThrownBy(() -> listener.handleAuditEvents(List.of(record(0, event("1")))))
+                .isInstanceOf(TooManyRequestsException.class);
+        verify(kafkaIngestThrottle).pause();
+    }
+
+    @Test
+    @DisplayName("itShouldNotWrite_whenBatchIsEmpty")
+    public void itShouldNotWrite_whenBatchIsEmpty() {
+        listener.handleAuditEvents(List.of());
+
+        verify(auditService, never()).saveAuditLogs(anyList());
+    }
+
+    @Test
+    @DisplayName("itShouldSendUndecodableRecordsToTheDeadLetterTopicAndStoreTheRest_whenBatchHasMalformedValues")
+    public void itShouldSendUndecodableRecordsToTheDeadLetterTopicAndStoreTheRest_whenBatchHasMalformedValues()
+            throws Exception {
+        when(auditService.saveAuditLogs(anyList())).thenReturn(BulkWriteResult.success(2));
+        ConsumerRecord<String, byte[]> garbage = record(1, "not json".getBytes(StandardCharsets.UTF_8));
+        ConsumerRecord<String, byte[]> tombstone = record(2, (byte[]) null);
+        ConsumerRecord<String, byte[]> jsonNull = record(3, "null".getBytes(StandardCharsets.UTF_8));
+
+        listener.handleAuditEvents(List.of(record(0, event("1")), garbage, tombstone, jsonNull, record(4, event("5"))));
+
+        verify(deadLetterRecoverer).accept(eq(garbage), any(Exception.class));
+        verify(deadLetterRecoverer).accept(eq(tombstone), any(IllegalArgumentException.class));
+        verify(deadLetterRecoverer).accept(eq(jsonNull), any(IllegalArgumentException.class));
+        verify(auditService).saveAuditLogs(List.of(event("1"), event("5")));
+        assertThat(meterRegistry.counter("audit.ingest.deserialization.failures", "source", "kafka").count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("itShouldSendEventToTheDeadLetterTopic_whenItHasNoTimestamp")
+    public void itShouldSendEventToTheDeadLetterTopic_whenItHasNoTimestamp() throws Exception {
+        AuditLog withoutTimestamp = event("1");
+        withoutTimestamp.setTimestamp(null);
+        ConsumerRecord<String, byte[]> record = record(0, withoutTimestamp);
+
+        listener.handleAuditEvents(List.of(record));
+
+        verify(deadLetterRecoverer).accept(eq(record), any(IllegalArgumentException.class));
+        verify(auditService, never()).saveAuditLogs(anyList());
+    }
+
+    @Test
+    @DisplayName("itShouldNotWrite_whenEveryRecordIsUndecodable")
+    public void itShouldNotWrite_whenEveryRecordIsUndecodable() {
+        ConsumerRecord<String, byte[]> garbage = record(0, new byte[]{(byte) 0xFF, 0x00});
+
+        listener.handleAuditEvents(List.of(garbage));
+
+        verify(deadLetterRecoverer).accept(eq(garbage), any(Exception.class));
+        verify(auditService, never()).saveAuditLogs(anyList());
+    }
+
+    @Test
+    @DisplayName("itShouldFailTheBatch_whenTheDeadLetterTopicCannotBeWritten")
+    public void itShouldFailTheBatch_whenTheDeadLetterTopicCannotBeWritten() {
+        ConsumerRecord<String, byte[]> garbage = record(0, "not json".getBytes(StandardCharsets.UTF_8));
+        doThrow(new KafkaException("dead-letter topic unavailable")).when(deadLetterRecoverer)
+                .accept(eq(garbage), any(Exception.class));
+
+        assertThatThrownBy(() -> listener.handleAuditEvents(List.of(garbage)))
+                .isInstanceOf(KafkaException.class);
+        verify(auditService, never()).saveAuditLogs(anyList());
+    }
+
+    private ConsumerRecord<String, byte[]> record(long offset, AuditLog auditLog) throws Exception {
+        return record(offset, mapper.writeValueAsBytes(auditLog));
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, byte[] value) {
+        return new ConsumerRecord<>(KafkaConfig.AUDIT_EVENTS_TOPIC, 0, offset, null, value);
+    }
+
+    private static AuditLog event(String eventId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        auditLog.setSourceService("user-service");
+        auditLog.setEventType("USER_UPDATED");
+        return auditLog;
+    }
+}
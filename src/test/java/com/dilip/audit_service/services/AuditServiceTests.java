@@ -0,0 +1,181 @@
+package com.dilip.audit_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.common.DeletionResult;
+import com.dilip.audit_service.common.WriteOutcome;
+import com.dilip.audit_service.config.AuditCacheConfig;
+import com.dilip.audit_service.config.IngestLimiterConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.data.repository.AuditRepository;
+import com.dilip.audit_service.data.repository.AuditRepositoryFactory;
+import com.dilip.audit_service.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AuditServiceTests {
+
+    private static final UserContext ADMIN = new UserContext("admin123", "admin", List.of("ROLE_ADMIN"));
+    private static final UserContext USER = new UserContext("user-001", "user", List.of("ROLE_USER"));
+
+    private final AuditRepository transientRepository = mock(AuditRepository.class);
+    private final UserContextService userContextService = mock(UserContextService.class);
+    private final AuditWritePipeline auditWritePipeline = mock(AuditWritePipeline.class);
+    private final AuditEventCache auditEventCache = new AuditEventCache(new AuditCacheConfig(), new SimpleMeterRegistry());
+    private final IngestLimiterConfig ingestLimiterConfig = new IngestLimiterConfig();
+    private final IngestConcurrencyLimiter ingestLimiter =
+            new IngestConcurrencyLimiter(ingestLimiterConfig, new SimpleMeterRegistry());
+    private final AuditService auditService = auditService();
+
+    @Test
+    @DisplayName("itShouldReadThroughAndServeFromCache_whenEventIsLookedUpTwice")
+    public void itShouldReadThroughAndServeFromCache_whenEventIsLookedUpTwice() {
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(ADMIN));
+        when(transientRepository.findByEventId("1")).thenReturn(Optional.of(event("1", "admin123")));
+
+        assertThat(auditService.findByEventId("1")).isPresent();
+        assertThat(auditService.findByEventId("1")).isPresent();
+
+        verify(transientRepository, times(1)).findByEventId("1");
+    }
+
+    @Test
+    @DisplayName("itShouldNotCache_whenEventIsNotFound")
+    public void itShouldNotCache_whenEventIsNotFound() {
+        when(transientRepository.findByEventId("1")).thenReturn(Optional.empty());
+
+        assertThat(auditService.findByEventId("1")).isEmpty();
+        assertThat(auditService.findByEventId("1")).isEmpty();
+
+        verify(transientRepository, times(2)).findByEventId("1");
+    }
+
+    @Test
+    @DisplayName("itShouldHideCachedEvent_whenCurrentUserMayNotSeeIt")
+    public void itShouldHideCachedEvent_whenCurrentUserMayNotSeeIt() {
+        auditEventCache.put(event("1", "admin123"));
+
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(USER));
+        assertThat(auditService.findByEventId("1")).isEmpty();
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(ADMIN));
+        assertThat(auditService.findByEventId("1")).isPresent();
+
+        verify(transientRepository, never()).findByEventId("1");
+    }
+
+    @Test
+    @DisplayName("itShouldStopServingEventFromCache_whenItIsDeleted")
+    public void itShouldStopServingEventFromCache_whenItIsDeleted() {
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(ADMIN));
+        auditEventCache.put(event("1", "admin123"));
+        when(transientRepository.deleteEvent("1")).thenReturn(new DeletionResult.DeletionSuccess(1));
+        when(transientRepository.findByEventId("1")).thenReturn(Optional.empty());
+
+        auditService.deleteEvent("1");
+
+        assertThat(auditService.findByEventId("1")).isEmpty();
+        verify(transientRepository).findByEventId("1");
+    }
+
+    @Test
+    @DisplayName("itShouldReleaseTheSlot_whenABatchIsWritten")
+    public void itShouldReleaseTheSlot_whenABatchIsWritten() {
+        when(auditWritePipeline.writeAll(List.of(event("1", "admin123"))))
+                .thenReturn(CompletableFuture.completedFuture(new BulkWriteResult(1, Map.of("1", "cluster red"))));
+
+        auditService.saveAuditLogs(List.of(event("1", "admin123")));
+
+        assertThat(ingestLimiter.getInFlight()).isZero();
+        assertThat(ingestLimiter.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    @DisplayName("itShouldReleaseTheSlot_whenTheBatchWriteCompletesExceptionally")
+    public void itShouldReleaseTheSlot_whenTheBatchWriteCompletesExceptionally() {
+        when(auditWritePipeline.writeAll(List.of(event("1", "admin123"))))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("shutting down")));
+
+        assertThatThrownBy(() -> auditService.saveAuditLogs(List.of(event("1", "admin123"))))
+                .isInstanceOf(CompletionException.class);
+
+        assertThat(ingestLimiter.getInFlight()).isZero();
+        assertThat(ingestLimiter.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    @DisplayName("itShouldReleaseTheSlot_whenTheWriteThrowsBeforeItStarts")
+    public void itShouldReleaseTheSlot_whenTheWriteThrowsBeforeItStarts() {
+        when(auditWritePipeline.write(event("1", "admin123"))).thenThrow(new RejectedExecutionException("shutting down"));
+
+        assertThatThrownBy(() -> auditService.saveAuditLogAsync(event("1", "admin123")))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        assertThat(ingestLimiter.getInFlight()).isZero();
+        assertThat(ingestLimiter.getLimit()).isEqualTo(18);
+    }
+
+    @Test
+    @DisplayName("itShouldHoldTheSlotUntilTheWriteCompletes_whenWritingAsynchronously")
+    public void itShouldHoldTheSlotUntilTheWriteCompletes_whenWritingAsynchronously() {
+        CompletableFuture<WriteOutcome> write = new CompletableFuture<>();
+        when(auditWritePipeline.write(event("1", "admin123"))).thenReturn(write);
+
+        CompletableFuture<WriteOutcome> outcome = auditService.saveAuditLogAsync(event("1", "admin123"));
+        assertThat(ingestLimiter.getInFlight()).isEqualTo(1);
+        write.complete(new WriteOutcome("1", Map.of(), Set.of()));
+
+        assertThat(outcome).isCompleted();
+        assertThat(ingestLimiter.getInFlight()).isZero();
+        assertThat(auditEventCache.get("1")).isPresent();
+    }
+
+    @Test
+    @DisplayName("itShouldRejectWithoutWriting_whenEverySlotIsTaken")
+    public void itShouldRejectWithoutWriting_whenEverySlotIsTaken() {
+        when(auditWritePipeline.write(event("1", "admin123"))).thenReturn(new CompletableFuture<>());
+        for (int i = 0; i < ingestLimiterConfig.getInitialLimit(); i++) {
+            auditService.saveAuditLogAsync(event("1", "admin123"));
+        }
+
+        assertThatThrownBy(() -> auditService.saveAuditLogs(List.of(event("2", "admin123"))))
+                .isInstanceOf(TooManyRequestsException.class);
+        verify(auditWritePipeline, never()).writeAll(List.of(event("2", "admin123")));
+    }
+
+    private AuditService auditService() {
+        AuditRepositoryFactory auditRepositoryFactory = mock(AuditRepositoryFactory.class);
+        when(auditRepositoryFactory.getTransientRepository()).thenReturn(transientRepository);
+        return new AuditService(auditRepositoryFactory, auditEventCache, userContextService,
+                mock(TieredQueryRouter.class), auditWritePipeline, Optional.empty(), ingestLimiter,
+                ingestLimiterConfig);
+    }
+
+    static AuditLog event(String eventId, String changedByUserId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        auditLog.setSourceService("user-service");
+        AuditLog.ChangedBy changedBy = new AuditLog.ChangedBy();
+        changedBy.setUserId(changedByUserId);
+        auditLog.setChangedBy(changedBy);
+        return auditLog;
+    }
+}
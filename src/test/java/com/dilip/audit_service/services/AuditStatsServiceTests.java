@@ -0,0 +1,154 @@
+package com.dilip.audit_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.common.AuditStats;
+import com.dilip.audit_service.config.RollupConfig;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.data.repository.AuditStatsRepository;
+import com.dilip.audit_service.exception.BadRequestException;
+import com.dilip.audit_service.rollup.RollupResolution;
+import com.dilip.audit_service.rollup.RollupStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class AuditStatsServiceTests {
+
+    private static final UserContext ADMIN = new UserContext("admin123", "admin", List.of("ROLE_ADMIN"));
+    private static final UserContext USER = new UserContext("user-001", "user", List.of("ROLE_USER"));
+    private static final AuditStats RAW = new AuditStats(1, Map.of(), Map.of(), Map.of(), List.of(), Map.of());
+    private static final AuditStats ROLLUP = new AuditStats(2, Map.of(), Map.of(), Map.of(), List.of(), Map.of());
+
+    private final AuditStatsRepository auditStatsRepository = mock(AuditStatsRepository.class);
+    private final RollupStore rollupStore = mock(RollupStore.class);
+    private final UserContextService userContextService = mock(UserContextService.class);
+    private final AuditStatsService auditStatsService = new AuditStatsService(auditStatsRepository, rollupStore,
+            userContextService, new RollupConfig());
+    private final Instant hour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    public void stubStores() throws IOException {
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(ADMIN));
+        when(auditStatsRepository.stats(any(), anyString(), anyInt())).thenReturn(RAW);
+        when(rollupStore.stats(any(), anyString(), any())).thenReturn(ROLLUP);
+    }
+
+    @Test
+    @DisplayName("itShouldRejectTheRequest_whenIntervalIsInvalid")
+    public void itShouldRejectTheRequest_whenIntervalIsInvalid() {
+        for (String interval : List.of("15x", "0m", "1.5h", "h", "1234567s")) {
+            assertThatThrownBy(() -> auditStatsService.stats(range(hour.minus(Duration.ofHours(2)), hour), interval, 0))
+                    .isInstanceOf(BadRequestException.class);
+        }
+        verifyNoInteractions(auditStatsRepository, rollupStore);
+    }
+
+    @Test
+    @DisplayName("itShouldRejectTheRequest_whenTopUsersIsOutOfRange")
+    public void itShouldRejectTheRequest_whenTopUsersIsOutOfRange() {
+        AuditSearchRequest request = range(hour.minus(Duration.ofHours(2)), hour);
+
+        assertThatThrownBy(() -> auditStatsService.stats(request, "1h", -1)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> auditStatsService.stats(request, "1h", 101)).isInstanceOf(BadRequestException.class);
+        assertThat(auditStatsService.stats(request, "1h", 100)).isSameAs(RAW);
+    }
+
+    @Test
+    @DisplayName("itShouldRejectTheRequest_whenTheHistogramHasTooManyBuckets")
+    public void itShouldRejectTheRequest_whenTheHistogramHasTooManyBuckets() {
+        AuditSearchRequest year = range(Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2026-01-01T00:00:00Z"));
+
+        assertThatThrownBy(() -> auditStatsService.stats(year, "1h", 0))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("at most 1000");
+        assertThat(auditStatsService.stats(year, "1d", 0)).isSameAs(RAW);
+    }
+
+    @Test
+    @DisplayName("itShouldNotCountABucketForTheEnd_whenTheRangeIsAligned")
+    public void itShouldNotCountABucketForTheEnd_whenTheRangeIsAligned() {
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+
+        // [start, start + 1000h) is exactly 1000 hourly buckets, the end is exclusive
+        assertThat(auditStatsService.stats(range(start, start.plus(Duration.ofHours(1000))), "1h", 0)).isSameAs(RAW);
+        assertThatThrownBy(() -> auditStatsService.stats(range(start.plusSeconds(1),
+                start.plus(Duration.ofHours(1000)).plusSeconds(1)), "1h", 0))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("1001 histogram buckets");
+    }
+
+    @Test
+    @DisplayName("itShouldCountBucketsUpToTheNewestEvent_whenTheRangeIsUnbounded")
+    public void itShouldCountBucketsUpToTheNewestEvent_whenTheRangeIsUnbounded() {
+        when(auditStatsRepository.timeBounds(any())).thenReturn(Optional.of(new AuditStatsRepository.TimeBounds(
+                Instant.parse("2025-01-01T00:00:00Z"), Instant.parse("2025-12-31T00:00:00Z"))));
+
+        assertThatThrownBy(() -> auditStatsService.stats(new AuditSearchRequest(), "1h", 0))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(auditStatsService.stats(new AuditSearchRequest(), "1d", 0)).isSameAs(RAW);
+    }
+
+    @Test
+    @DisplayName("itShouldAggregateRawEvents_whenNothingMatchesAnUnboundedRange")
+    public void itShouldAggregateRawEvents_whenNothingMatchesAnUnboundedRange() {
+        when(auditStatsRepository.timeBounds(any())).thenReturn(Optional.empty());
+
+        assertThat(auditStatsService.stats(new AuditSearchRequest(), "1s", 0)).isSameAs(RAW);
+    }
+
+    @Test
+    @DisplayName("itShouldServeFromHourlyRollups_whenAdminRequestIsAlignedToHours")
+    public void itShouldServeFromHourlyRollups_whenAdminRequestIsAlignedToHours() throws IOException {
+        AuditSearchRequest request = range(hour.minus(Duration.ofDays(3)), hour);
+
+        assertThat(auditStatsService.stats(request, "1h", 0)).isSameAs(ROLLUP);
+        verify(rollupStore).stats(request, "1h", RollupResolution.HOUR);
+    }
+
+    @Test
+    @DisplayName("itShouldAggregateRawEvents_whenTheRequestIsNotAnsweredByRollups")
+    public void itShouldAggregateRawEvents_whenTheRequestIsNotAnsweredByRollups() throws IOException {
+        AuditSearchRequest request = range(hour.minus(Duration.ofDays(3)), hour);
+
+        // top users are not in the rollups
+        assertThat(auditStatsService.stats(request, "1h", 5)).isSameAs(RAW);
+        // a non-admin is scoped to their own events
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(USER));
+        assertThat(auditStatsService.stats(request, "1h", 0)).isSameAs(RAW);
+        verify(rollupStore, never()).stats(any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("itShouldAggregateRawEvents_whenTheRollupQueryFails")
+    public void itShouldAggregateRawEvents_whenTheRollupQueryFails() throws IOException {
+        when(rollupStore.stats(any(), anyString(), any())).thenThrow(new IOException("rollup index unavailable"));
+
+        assertThat(auditStatsService.stats(range(hour.minus(Duration.ofDays(3)), hour), "1h", 0)).isSameAs(RAW);
+    }
+
+    private static AuditSearchRequest range(Instant startTime, Instant endTime) {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setStartTime(startTime.toString());
+        request.setEndTime(endTime.toString());
+        return request;
+    }
+}
@@ -0,0 +1,197 @@
+package com.dilip.audit_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.common.WriteOutcome;
+import com.dilip.audit_service.config.WritePipelineConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.repository.AuditRepository;
+import com.dilip.audit_service.data.repository.AuditRepositoryFactory;
+import com.dilip.audit_service.outbox.PendingWrite;
+import com.dilip.audit_service.outbox.PendingWriteJournal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AuditWritePipelineTests {
+
+    private final AuditRepository transientRepository = mock(AuditRepository.class);
+    private final AuditRepository coldStorageRepository = mock(AuditRepository.class);
+    private final PendingWriteJournal pendingWriteJournal = mock(PendingWriteJournal.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WritePipelineConfig config = new WritePipelineConfig();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AuditWritePipeline pipeline;
+
+    @AfterEach
+    public void shutdown() throws InterruptedException {
+        release.countDown();
+        pipeline.shutdown();
+    }
+
+    @Test
+    @DisplayName("itShouldReportDurableWithNoDeferredTier_whenBothTiersAreWritten")
+    public void itShouldReportDurableWithNoDeferredTier_whenBothTiersAreWritten() {
+        pipeline = pipeline();
+
+        WriteOutcome outcome = pipeline.write(event("1")).join();
+
+        assertThat(outcome.isDurable()).isTrue();
+        assertThat(outcome.deferredTiers()).isEmpty();
+        verify(pendingWriteJournal, never()).record(anyList());
+    }
+
+    @Test
+    @DisplayName("itShouldJournalTheMissingTierAndReportItDeferred_whenOneTierFails")
+    public void itShouldJournalTheMissingTierAndReportItDeferred_whenOneTierFails() {
+        pipeline = pipeline();
+        doThrow(new IllegalStateException("bucket unavailable")).when(coldStorageRepository).save(event("1"));
+
+        WriteOutcome outcome = pipeline.write(event("1")).join();
+
+        assertThat(outcome.isDurable()).isTrue();
+        assertThat(outcome.deferredTiers()).containsExactly(AuditWritePipeline.COLD_STORAGE_TIER);
+        assertThat(journaled()).singleElement().satisfies(write -> {
+            assertThat(write.tier()).isEqualTo(AuditWritePipeline.COLD_STORAGE_TIER);
+            assertThat(write.event().getEventId()).isEqualTo("1");
+            assertThat(write.lastError()).contains("bucket unavailable");
+        });
+        assertThat(meterRegistry.counter("audit.write.partial", "tier", "s3").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("itShouldReportFailedWithoutJournaling_whenBothTiersFail")
+    public void itShouldReportFailedWithoutJournaling_whenBothTiersFail() {
+        pipeline = pipeline();
+        doThrow(new IllegalStateException("cluster red")).when(transientRepository).save(event("1"));
+        doThrow(new IllegalStateException("bucket unavailable")).when(coldStorageRepository).save(event("1"));
+
+        WriteOutcome outcome = pipeline.write(event("1")).join();
+
+        assertThat(outcome.isDurable()).isFalse();
+        assertThat(outcome.failedTiers()).containsOnlyKeys(AuditWritePipeline.TRANSIENT_TIER,
+                AuditWritePipeline.COLD_STORAGE_TIER);
+        assertThat(outcome.deferredTiers()).isEmpty();
+        verify(pendingWriteJournal, never()).record(anyList());
+    }
+
+    @Test
+    @DisplayName("itShouldReportFailed_whenTheMissingTierCannotBeJournaled")
+    public void itShouldReportFailed_whenTheMissingTierCannotBeJournaled() {
+        pipeline = pipeline();
+        doThrow(new IllegalStateException("bucket unavailable")).when(coldStorageRepository).save(event("1"));
+        doThrow(new IllegalStateException("disk full")).when(pendingWriteJournal).record(anyList());
+
+        WriteOutcome outcome = pipeline.write(event("1")).join();
+
+        assertThat(outcome.isDurable()).isFalse();
+        assertThat(outcome.failedTiers()).containsOnlyKeys(AuditWritePipeline.COLD_STORAGE_TIER);
+        assertThat(outcome.deferredTiers()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("itShouldDeferTheSlowTierAndJournalOffTheTimeoutThread_whenATierTimesOut")
+    public void itShouldDeferTheSlowTierAndJournalOffTheTimeoutThread_whenATierTimesOut() {
+        config.setTransientTimeout(Duration.ofMillis(50));
+        pipeline = pipeline();
+        doAnswer(invocation -> {
+            release.await();
+            return null;
+        }).when(transientRepository).save(event("1"));
+        AtomicReference<String> journalThread = new AtomicReference<>();
+        doAnswer(invocation -> {
+            journalThread.set(Thread.currentThread().getName());
+            return null;
+        }).when(pendingWriteJournal).record(anyList());
+
+        WriteOutcome outcome = pipeline.write(event("1")).join();
+
+        assertThat(outcome.isDurable()).isTrue();
+        assertThat(outcome.deferredTiers()).containsExactly(AuditWritePipeline.TRANSIENT_TIER);
+        assertThat(journaled()).singleElement()
+                .satisfies(write -> assertThat(write.lastError()).contains("timed out after PT0.05S"));
+        assertThat(journalThread.get()).doesNotContain("CompletableFutureDelayScheduler");
+    }
+
+    @Test
+    @DisplayName("itShouldFailOnlyEventsMissingFromBothTiers_whenBulkWritesPartiallyFail")
+    public void itShouldFailOnlyEventsMissingFromBothTiers_whenBulkWritesPartiallyFail() {
+        pipeline = pipeline();
+        List<AuditLog> batch = List.of(event("1"), event("2"), event("3"));
+        when(transientRepository.saveAll(batch))
+                .thenReturn(new BulkWriteResult(3, Map.of("2", "version conflict", "3", "mapping error")));
+        when(coldStorageRepository.saveAll(batch))
+                .thenReturn(new BulkWriteResult(3, Map.of("3", "bucket unavailable")));
+
+        BulkWriteResult result = pipeline.writeAll(batch).join();
+
+        assertThat(result.attempted()).isEqualTo(3);
+        assertThat(result.failures()).containsOnlyKeys("3");
+        assertThat(result.failures().get("3")).isEqualTo("mapping error; bucket unavailable");
+        assertThat(journaled()).singleElement().satisfies(write -> {
+            assertThat(write.event().getEventId()).isEqualTo("2");
+            assertThat(write.tier()).isEqualTo(AuditWritePipeline.TRANSIENT_TIER);
+        });
+    }
+
+    @Test
+    @DisplayName("itShouldFailEveryEventOfTheBatch_whenBothTiersTimeOut")
+    public void itShouldFailEveryEventOfTheBatch_whenBothTiersTimeOut() {
+        config.setTransientTimeout(Duration.ofMillis(50));
+        config.setColdStorageTimeout(Duration.ofMillis(50));
+        pipeline = pipeline();
+        List<AuditLog> batch = List.of(event("1"), event("2"));
+        when(transientRepository.saveAll(batch)).thenAnswer(invocation -> {
+            release.await();
+            return BulkWriteResult.success(2);
+        });
+        when(coldStorageRepository.saveAll(batch)).thenAnswer(invocation -> {
+            release.await();
+            return BulkWriteResult.success(2);
+        });
+
+        BulkWriteResult result = pipeline.writeAll(batch).join();
+
+        assertThat(result.failures()).containsOnlyKeys("1", "2");
+        assertThat(result.failures().get("1")).contains("elasticsearch write timed out", "s3 write timed out");
+        verify(pendingWriteJournal, never()).record(anyList());
+    }
+
+    private AuditWritePipeline pipeline() {
+        AuditRepositoryFactory auditRepositoryFactory = mock(AuditRepositoryFactory.class);
+        when(auditRepositoryFactory.getTransientRepository()).thenReturn(transientRepository);
+        when(auditRepositoryFactory.getColdStorageRepository()).thenReturn(coldStorageRepository);
+        return new AuditWritePipeline(auditRepositoryFactory, config, meterRegistry, pendingWriteJournal);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PendingWrite> journaled() {
+        ArgumentCaptor<List<PendingWrite>> writes = ArgumentCaptor.forClass(List.class);
+        verify(pendingWriteJournal).record(writes.capture());
+        return writes.getValue();
+    }
+
+    private static AuditLog event(String eventId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        return auditLog;
+    }
+}
@@ -0,0 +1,114 @@
+package com.dilip.audit_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.dilip.audit_service.config.IngestLimiterConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+public class IngestConcurrencyLimiterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final IngestLimiterConfig config = new IngestLimiterConfig();
+
+    @Test
+    @DisplayName("itShouldRejectWrites_whenTheLimitIsReached")
+    public void itShouldRejectWrites_whenTheLimitIsReached() {
+        config.setInitialLimit(2);
+        IngestConcurrencyLimiter limiter = limiter();
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.hasCapacity()).isFalse();
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(meterRegistry.counter("audit.ingest.rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("itShouldRaiseTheLimitByOne_whenAFastWriteCompletesWhileTheLimitIsInUse")
+    public void itShouldRaiseTheLimitByOne_whenAFastWriteCompletesWhileTheLimitIsInUse() {
+        config.setInitialLimit(2);
+        IngestConcurrencyLimiter limiter = limiter();
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+
+        limiter.release(System.nanoTime(), false);
+
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("itShouldKeepTheLimit_whenAFastWriteCompletesWhileTheLimitIsMostlyUnused")
+    public void itShouldKeepTheLimit_whenAFastWriteCompletesWhileTheLimitIsMostlyUnused() {
+        config.setInitialLimit(10);
+        IngestConcurrencyLimiter limiter = limiter();
+        limiter.tryAcquire();
+
+        limiter.release(System.nanoTime(), false);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("itShouldShrinkTheLimitByTheBackoffRatio_whenAWriteFailsOrIsSlow")
+    public void itShouldShrinkTheLimitByTheBackoffRatio_whenAWriteFailsOrIsSlow() {
+        config.setInitialLimit(20);
+        config.setLatencyThreshold(Duration.ofMillis(100));
+        IngestConcurrencyLimiter limiter = limiter();
+
+        limiter.tryAcquire();
+        limiter.release(System.nanoTime(), true);
+        assertThat(limiter.getLimit()).isEqualTo(18);
+
+        limiter.tryAcquire();
+        limiter.release(System.nanoTime() - Duration.ofSeconds(1).toNanos(), false);
+        assertThat(limiter.getLimit()).isCloseTo(16.2, within(1e-9));
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("itShouldKeepTheLimitWithinItsBounds_whenItKeepsAdapting")
+    public void itShouldKeepTheLimitWithinItsBounds_whenItKeepsAdapting() {
+        config.setInitialLimit(2);
+        config.setMinLimit(1);
+        config.setMaxLimit(3);
+        IngestConcurrencyLimiter limiter = limiter();
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(System.nanoTime(), false);
+            limiter.release(System.nanoTime(), false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(System.nanoTime(), true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("itShouldPublishLimitAndInFlight_whenRegistered")
+    public void itShouldPublishLimitAndInFlight_whenRegistered() {
+        config.setInitialLimit(5);
+        IngestConcurrencyLimiter limiter = limiter();
+        limiter.tryAcquire();
+
+        assertThat(meterRegistry.get("audit.ingest.limit").gauge().value()).isEqualTo(5);
+        assertThat(meterRegistry.get("audit.ingest.inflight").gauge().value()).isEqualTo(1);
+    }
+
+    private IngestConcurrencyLimiter limiter() {
+        return new IngestConcurrencyLimiter(config, meterRegistry);
+    }
+}
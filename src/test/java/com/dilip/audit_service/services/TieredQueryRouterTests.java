@@ -0,0 +1,142 @@
+package com.dilip.audit_service.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.config.TieringConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.data.entity.AuditSearchRequest;
+import com.dilip.audit_service.data.entity.UserContext;
+import com.dilip.audit_service.data.repository.AuditRepository;
+import com.dilip.audit_service.data.repository.AuditRepositoryFactory;
+import com.dilip.audit_service.exception.BadRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class TieredQueryRouterTests {
+
+    private static final UserContext ADMIN = new UserContext("admin123", "admin", List.of("ROLE_ADMIN"));
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+    private final AuditRepository hotRepository = mock(AuditRepository.class);
+    private final AuditRepository coldRepository = mock(AuditRepository.class);
+    private final TieredQueryRouter router = router();
+
+    @AfterEach
+    public void shutdown() {
+        router.shutdown();
+    }
+
+    @Test
+    @DisplayName("itShouldMergeBothTiersNewestFirstAndPage_whenRangeSpansTheHotRetention")
+    public void itShouldMergeBothTiersNewestFirstAndPage_whenRangeSpansTheHotRetention() {
+        // hot events come sorted from Elasticsearch, cold events in key order
+        when(hotRepository.advancedSearch(any())).thenAnswer(invocation -> {
+            AuditSearchRequest hot = invocation.getArgument(0);
+            return Stream.of(event("h1", 1), event("h2", 2), event("h3", 3))
+                    .limit(hot.getSize())
+                    .toList();
+        });
+        when(coldRepository.streamSearch(any())).thenAnswer(invocation ->
+                Stream.of(event("c20", 20), event("c16", 16), event("c30", 30), event("c18", 18)));
+
+        assertThat(router.search(request(daysAgo(40), null, 0, 3, null)))
+                .extracting(AuditLog::getEventId).containsExactly("h1", "h2", "h3");
+        assertThat(router.search(request(daysAgo(40), null, 1, 3, null)))
+                .extracting(AuditLog::getEventId).containsExactly("c16", "c18", "c20");
+        assertThat(router.search(request(daysAgo(40), null, 2, 3, null)))
+                .extracting(AuditLog::getEventId).containsExactly("c30");
+    }
+
+    @Test
+    @DisplayName("itShouldAskHotTierForTheWholeWindowSortedByTimestamp_whenRangeSpansBothTiers")
+    public void itShouldAskHotTierForTheWholeWindowSortedByTimestamp_whenRangeSpansBothTiers() {
+        ArgumentCaptor<AuditSearchRequest> hot = ArgumentCaptor.forClass(AuditSearchRequest.class);
+        when(hotRepository.advancedSearch(hot.capture())).thenReturn(List.of());
+        when(coldRepository.streamSearch(any())).thenAnswer(invocation -> Stream.empty());
+
+        router.search(request(daysAgo(40), null, 2, 10, "timestamp,asc"));
+
+        assertThat(hot.getValue().getPage()).isZero();
+        assertThat(hot.getValue().getSize()).isEqualTo(30);
+        assertThat(hot.getValue().getSort()).isEqualTo("timestamp,asc");
+    }
+
+    @Test
+    @DisplayName("itShouldSortAndPageColdResults_whenRangeIsColdOnly")
+    public void itShouldSortAndPageColdResults_whenRangeIsColdOnly() {
+        when(coldRepository.streamSearch(any())).thenAnswer(invocation ->
+                Stream.of(event("c20", 20), event("c16", 16), event("c30", 30), event("c18", 18)));
+
+        assertThat(router.search(request(daysAgo(40), daysAgo(15), 0, 2, null)))
+                .extracting(AuditLog::getEventId).containsExactly("c16", "c18");
+        assertThat(router.search(request(daysAgo(40), daysAgo(15), 1, 2, null)))
+                .extracting(AuditLog::getEventId).containsExactly("c20", "c30");
+        assertThat(router.search(request(daysAgo(40), daysAgo(15), 0, 2, "timestamp,asc")))
+                .extracting(AuditLog::getEventId).containsExactly("c30", "c20");
+        verifyNoInteractions(hotRepository);
+    }
+
+    @Test
+    @DisplayName("itShouldRejectSortOtherThanTimestamp_whenSearchReachesColdStorage")
+    public void itShouldRejectSortOtherThanTimestamp_whenSearchReachesColdStorage() {
+        assertThatThrownBy(() -> router.search(request(daysAgo(40), null, 0, 10, "eventType,asc")))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(hotRepository, coldRepository);
+    }
+
+    @Test
+    @DisplayName("itShouldRejectPage_whenItEndsBeyondTheResultWindow")
+    public void itShouldRejectPage_whenItEndsBeyondTheResultWindow() {
+        assertThatThrownBy(() -> router.search(request(daysAgo(40), null, 100, 100, null)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> router.search(request(null, null, 10_000, 1, null)))
+                .isInstanceOf(BadRequestException.class);
+        verifyNoInteractions(hotRepository, coldRepository);
+    }
+
+    private TieredQueryRouter router() {
+        AuditRepositoryFactory auditRepositoryFactory = mock(AuditRepositoryFactory.class);
+        when(auditRepositoryFactory.getTransientRepository()).thenReturn(hotRepository);
+        when(auditRepositoryFactory.getColdStorageRepository()).thenReturn(coldRepository);
+        UserContextService userContextService = mock(UserContextService.class);
+        when(userContextService.getCurrentUser()).thenReturn(Optional.of(ADMIN));
+        TieringConfig config = new TieringConfig();
+        config.setHotRetention(Duration.ofDays(14));
+        return new TieredQueryRouter(auditRepositoryFactory, userContextService, config);
+    }
+
+    private String daysAgo(int days) {
+        return now.minus(Duration.ofDays(days)).toString();
+    }
+
+    private static AuditSearchRequest request(String startTime, String endTime, int page, int size, String sort) {
+        AuditSearchRequest request = new AuditSearchRequest();
+        request.setStartTime(startTime);
+        request.setEndTime(endTime);
+        request.setPage(page);
+        request.setSize(size);
+        request.setSort(sort);
+        return request;
+    }
+
+    private AuditLog event(String eventId, int daysAgo) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(now.minus(Duration.ofDays(daysAgo)));
+        return auditLog;
+    }
+}
@@ -0,0 +1,122 @@
+package com.dilip.audit_service.wal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dilip.audit_service.codec.AuditEventCodec;
+import com.dilip.audit_service.common.BulkWriteResult;
+import com.dilip.audit_service.config.EventCodecConfig;
+import com.dilip.audit_service.config.WalConfig;
+import com.dilip.audit_service.data.entity.AuditLog;
+import com.dilip.audit_service.services.AuditWritePipeline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class WalAuditWriterTests {
+
+    @TempDir
+    Path directory;
+
+    private final AuditWritePipeline auditWritePipeline = mock(AuditWritePipeline.class);
+    private final WalConfig config = new WalConfig();
+    private WriteAheadLog writeAheadLog;
+    private WalAuditWriter walAuditWriter;
+
+    @BeforeEach
+    public void open() throws Exception {
+        config.setDirectory(directory.toString());
+        config.setSegmentBytes(64 * 1024);
+        writeAheadLog = new WriteAheadLog(config);
+        writeAheadLog.open();
+        walAuditWriter = new WalAuditWriter(writeAheadLog, auditWritePipeline,
+                new AuditEventCodec(new ObjectMapper().findAndRegisterModules(), new EventCodecConfig()), config);
+    }
+
+    @AfterEach
+    public void close() throws InterruptedException {
+        writeAheadLog.close();
+    }
+
+    @Test
+    @DisplayName("itShouldStoreEveryEventAndCheckpoint_whenBothTiersAreWritten")
+    public void itShouldStoreEveryEventAndCheckpoint_whenBothTiersAreWritten() {
+        when(auditWritePipeline.writeAll(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(BulkWriteResult.success(2)));
+        write(event("1"), event("2"));
+
+        walAuditWriter.drain();
+
+        verify(auditWritePipeline).writeAll(List.of(event("1"), event("2")));
+        assertThat(writeAheadLog.hasUndrainedRecords()).isFalse();
+    }
+
+    @Test
+    @DisplayName("itShouldRetryOnlyTheFailedEvent_whenItFailsAheadOfStoredOnes")
+    public void itShouldRetryOnlyTheFailedEvent_whenItFailsAheadOfStoredOnes() {
+        when(auditWritePipeline.writeAll(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new BulkWriteResult(3, Map.of("2", "cluster red"))))
+                .thenReturn(CompletableFuture.completedFuture(BulkWriteResult.success(1)));
+        write(event("1"), event("2"), event("3"));
+
+        walAuditWriter.drain();
+        assertThat(writeAheadLog.hasUndrainedRecords()).isTrue();
+        walAuditWriter.drain();
+
+        verify(auditWritePipeline).writeAll(List.of(event("1"), event("2"), event("3")));
+        verify(auditWritePipeline).writeAll(List.of(event("2")));
+        assertThat(writeAheadLog.hasUndrainedRecords()).isFalse();
+    }
+
+    @Test
+    @DisplayName("itShouldSkipTheCorruptRecordAndDrainTheRest_whenARecordFailsItsChecksum")
+    public void itShouldSkipTheCorruptRecordAndDrainTheRest_whenARecordFailsItsChecksum() throws Exception {
+        when(auditWritePipeline.writeAll(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(BulkWriteResult.success(1)));
+        write(event("1"));
+        long secondRecord = writeAheadLog.read(writeAheadLog.checkpoint(), 1).endPosition();
+        write(event("2"));
+        // flip a payload byte of the second record
+        try (FileChannel channel = FileChannel.open(directory.resolve("%020d.wal".formatted(0)),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer payloadByte = ByteBuffer.allocate(1);
+            channel.read(payloadByte, (int) secondRecord + 8);
+            payloadByte.put(0, (byte) (payloadByte.get(0) ^ 0xFF)).rewind();
+            channel.write(payloadByte, (int) secondRecord + 8);
+        }
+
+        walAuditWriter.drain();
+
+        verify(auditWritePipeline).writeAll(List.of(event("1")));
+        assertThat(writeAheadLog.hasUndrainedRecords()).isFalse();
+    }
+
+    private void write(AuditLog... auditLogs) {
+        for (AuditLog auditLog : auditLogs) {
+            walAuditWriter.write(auditLog).join();
+        }
+    }
+
+    private static AuditLog event(String eventId) {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setEventId(eventId);
+        auditLog.setTimestamp(Instant.parse("2025-05-05T14:00:00Z"));
+        auditLog.setSourceService("user-service");
+        return auditLog;
+    }
+}
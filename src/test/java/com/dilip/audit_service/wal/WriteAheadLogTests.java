@@ -0,0 +1,160 @@
+package com.dilip.audit_service.wal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dilip.audit_service.config.WalConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class WriteAheadLogTests {
+
+    // [int length][int crc32c], see WriteAheadLog
+    private static final int HEADER_BYTES = 8;
+
+    @TempDir
+    Path directory;
+
+    private WriteAheadLog writeAheadLog;
+
+    @AfterEach
+    public void close() throws InterruptedException {
+        writeAheadLog.close();
+    }
+
+    @Test
+    @DisplayName("itShouldReadRecordsInAppendOrder_whenTheyAreDurable")
+    public void itShouldReadRecordsInAppendOrder_whenTheyAreDurable() throws Exception {
+        writeAheadLog = open(1024);
+        append("event-1", "event-2", "event-3");
+
+        WriteAheadLog.WalBatch batch = writeAheadLog.read(writeAheadLog.checkpoint(), 2);
+
+        assertThat(payloads(batch)).containsExactly("event-1", "event-2");
+        assertThat(batch.endPosition()).isEqualTo(batch.records().get(1).nextPosition());
+        assertThat(payloads(writeAheadLog.read(batch.endPosition(), 10))).containsExactly("event-3");
+    }
+
+    @Test
+    @DisplayName("itShouldReplayFromTheCheckpoint_whenReopened")
+    public void itShouldReplayFromTheCheckpoint_whenReopened() throws Exception {
+        writeAheadLog = open(1024);
+        append("event-1", "event-2", "event-3");
+        writeAheadLog.checkpoint(writeAheadLog.read(writeAheadLog.checkpoint(), 1).endPosition());
+        writeAheadLog.close();
+
+        writeAheadLog = open(1024);
+        append("event-4");
+
+        assertThat(writeAheadLog.hasUndrainedRecords()).isTrue();
+        assertThat(payloads(writeAheadLog.read(writeAheadLog.checkpoint(), 10)))
+                .containsExactly("event-2", "event-3", "event-4");
+    }
+
+    @Test
+    @DisplayName("itShouldTruncateTheTornRecordAndResumeAppending_whenReopenedAfterACrash")
+    public void itShouldTruncateTheTornRecordAndResumeAppending_whenReopenedAfterACrash() throws Exception {
+        writeAheadLog = open(1024);
+        append("event-1", "event-2");
+        writeAheadLog.close();
+        corruptPayload(0, recordBytes("event-1"));
+
+        writeAheadLog = open(1024);
+        append("event-3");
+
+        assertThat(payloads(writeAheadLog.read(writeAheadLog.checkpoint(), 10))).containsExactly("event-1", "event-3");
+    }
+
+    @Test
+    @DisplayName("itShouldSkipTheCorruptRecordAndReadOn_whenItIsInTheCurrentSegment")
+    public void itShouldSkipTheCorruptRecordAndReadOn_whenItIsInTheCurrentSegment() throws Exception {
+        writeAheadLog = open(1024);
+        append("event-1", "event-2", "event-3");
+        corruptPayload(0, recordBytes("event-1"));
+
+        assertThat(payloads(writeAheadLog.read(writeAheadLog.checkpoint(), 10))).containsExactly("event-1", "event-3");
+    }
+
+    @Test
+    @DisplayName("itShouldEndTheBatchPastTheCorruptRecord_whenItIsTheLastOne")
+    public void itShouldEndTheBatchPastTheCorruptRecord_whenItIsTheLastOne() throws Exception {
+        writeAheadLog = open(1024);
+        append("event-1", "event-2");
+        corruptPayload(0, recordBytes("event-1"));
+
+        WriteAheadLog.WalBatch batch = writeAheadLog.read(writeAheadLog.checkpoint(), 10);
+        writeAheadLog.checkpoint(batch.endPosition());
+
+        assertThat(payloads(batch)).containsExactly("event-1");
+        assertThat(writeAheadLog.hasUndrainedRecords()).isFalse();
+    }
+
+    @Test
+    @DisplayName("itShouldReadAcrossSegmentsAndDeleteDrainedOnes_whenSegmentsRoll")
+    public void itShouldReadAcrossSegmentsAndDeleteDrainedOnes_whenSegmentsRoll() throws Exception {
+        // two records per segment
+        writeAheadLog = open(2 * recordBytes("event-1"));
+        append("event-1", "event-2", "event-3", "event-4", "event-5");
+        assertThat(segmentFiles()).hasSize(3);
+
+        WriteAheadLog.WalBatch batch = writeAheadLog.read(writeAheadLog.checkpoint(), 3);
+        writeAheadLog.checkpoint(batch.endPosition());
+
+        assertThat(payloads(batch)).containsExactly("event-1", "event-2", "event-3");
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(payloads(writeAheadLog.read(writeAheadLog.checkpoint(), 10))).containsExactly("event-4", "event-5");
+    }
+
+    private WriteAheadLog open(int segmentBytes) throws IOException {
+        WalConfig config = new WalConfig();
+        config.setDirectory(directory.toString());
+        config.setSegmentBytes(segmentBytes);
+        WriteAheadLog opened = new WriteAheadLog(config);
+        opened.open();
+        return opened;
+    }
+
+    private void append(String... payloads) {
+        for (String payload : payloads) {
+            writeAheadLog.append(payload.getBytes(StandardCharsets.UTF_8)).join();
+        }
+    }
+
+    // flips the first payload byte of the record at the given offset of a segment, through the file
+    private void corruptPayload(long segmentId, int recordOffset) throws IOException {
+        Path segment = directory.resolve("%020d.wal".formatted(segmentId));
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer payloadByte = ByteBuffer.allocate(1);
+            channel.read(payloadByte, recordOffset + HEADER_BYTES);
+            payloadByte.put(0, (byte) (payloadByte.get(0) ^ 0xFF)).rewind();
+            channel.write(payloadByte, recordOffset + HEADER_BYTES);
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).toList();
+        }
+    }
+
+    private static int recordBytes(String payload) {
+        return HEADER_BYTES + payload.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static List<String> payloads(WriteAheadLog.WalBatch batch) {
+        return batch.records().stream()
+                .map(record -> new String(record.payload(), StandardCharsets.UTF_8))
+                .toList();
+    }
+}